@@ -0,0 +1,43 @@
+package me.tongfei.progressbar;
+
+import org.jline.terminal.Terminal;
+
+/**
+ * A console of a fixed width that understands ANSI escape sequences. Nothing is probed.
+ * @author cl
+ * @since 0.7.3
+ */
+class AnsiTerminalBackend implements TerminalBackend {
+
+    static final int DEFAULT_WIDTH = 80;
+
+    private final int width;
+
+    AnsiTerminalBackend(int width) {
+        this.width = width;
+    }
+
+    static int columnsFromEnvironment() {
+        try {
+            String columns = System.getenv("COLUMNS");
+            if (columns != null) return Integer.parseInt(columns.trim());
+        } catch (NumberFormatException ignored) {
+
+        }
+        return DEFAULT_WIDTH;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public Terminal getTerminal() {
+        return null;
+    }
+
+    @Override
+    public void close() { }
+
+}
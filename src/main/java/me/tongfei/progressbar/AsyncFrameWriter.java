@@ -0,0 +1,88 @@
+package me.tongfei.progressbar;
+
+import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link FrameWriter} that writes on a separate daemon thread, so that the rendering thread
+ * never blocks on a slow or stalled print stream (e.g. a full pipe).
+ * <p>
+ * Frames are handed off through a single slot: a new frame replaces any frame that was not written yet,
+ * so a slow consumer only costs dropped frames.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+class AsyncFrameWriter extends FrameWriter {
+
+    // the writes of all the asynchronous writers are made on a single shared daemon thread:
+    // a stalled print stream delays the output of the other asynchronous progress bars, but never their rendering
+    static class Output {
+        static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, AsyncFrameWriter.class.getName());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static class Frame {
+        final String text;
+        final int lines;
+
+        Frame(String text, int lines) {
+            this.text = text;
+            this.lines = lines;
+        }
+    }
+
+    private final AtomicReference<Frame> slot = new AtomicReference<>();
+    // whether a drain of this writer is queued on the output thread
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private volatile boolean closed = false;
+    private boolean finished = false; // only touched by the output thread
+
+    AsyncFrameWriter(PrintStream printStream, int occupiedLines, OverheadStats stats) {
+        super(printStream, occupiedLines, stats);
+    }
+
+    @Override
+    void write(String frame, int lines) {
+        if (slot.getAndSet(new Frame(frame, lines)) != null)
+            stats.recordDroppedFrame();
+        schedule();
+    }
+
+    /**
+     * Hands off the closing of the output to the output thread, after the last frame, and returns without waiting.
+     * On a slow print stream, the last frame and the trailer may thus be written after this returns,
+     * i.e. after what is printed right after closing.
+     */
+    @Override
+    void close() {
+        closed = true;
+        schedule();
+    }
+
+    private void schedule() {
+        if (queued.compareAndSet(false, true))
+            Output.INSTANCE.execute(this::drain);
+    }
+
+    private void drain() {
+        // cleared first: a frame handed off from now on queues another drain
+        queued.set(false);
+        if (finished) return;
+        Frame f = slot.getAndSet(null);
+        if (f != null) super.write(f.text, f.lines);
+        if (closed) {
+            // the last frame is handed off before closing, possibly while the previous one was written
+            if ((f = slot.getAndSet(null)) != null) super.write(f.text, f.lines);
+            finished = true;
+            super.close();
+        }
+    }
+
+}
@@ -51,7 +51,7 @@ public class BitOfInformation {
 
     public int getLength() {
         // might get problems with the length and asynchronous calls
-        return getBit().length();
+        return Util.displayWidth(getBit());
     }
 
 }
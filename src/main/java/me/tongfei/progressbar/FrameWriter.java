@@ -0,0 +1,81 @@
+package me.tongfei.progressbar;
+
+import java.io.PrintStream;
+
+/**
+ * Writes the rendered frames of a progress bar to its print stream, each frame in a single write.
+ * Before a frame is written, the lines occupied by the previously written frame are cleared.
+ * @author cl
+ * @since 0.7.3
+ */
+class FrameWriter {
+
+    // see https://en.wikipedia.org/wiki/ANSI_escape_code#CSI_sequences
+    static final String INITIALIZE_CSI = ((char) 0x1b) + "[";
+    static final char MOVE_TO_COLUMN = 'G';
+    static final char CLEAR_LINE = 'K';
+    static final char MOVE_UP = 'A';
+
+    final PrintStream printStream;
+    final OverheadStats stats;
+    private int occupiedLines;
+    private final StringBuilder buffer = new StringBuilder();
+
+    FrameWriter(PrintStream printStream, int occupiedLines, OverheadStats stats) {
+        this.printStream = printStream;
+        this.occupiedLines = occupiedLines;
+        this.stats = stats;
+    }
+
+    /**
+     * Writes a frame.
+     *
+     * @param frame Rendered frame, ending with a line break
+     * @param lines Number of lines the frame occupies, i.e. that have to be cleared before the next frame
+     */
+    void write(String frame, int lines) {
+        buffer.setLength(0);
+        for (int i = 0; i < occupiedLines; i++) {
+            // move cursor to first column
+            buffer.append(INITIALIZE_CSI).append(MOVE_TO_COLUMN);
+            // clear line from beginning to end
+            buffer.append(INITIALIZE_CSI).append(CLEAR_LINE);
+            // move one row up
+            buffer.append(INITIALIZE_CSI).append(MOVE_UP);
+        }
+        buffer.append(frame);
+        printStream.print(buffer);
+        printStream.flush();
+        stats.recordWrite(utf8Length(buffer));
+        occupiedLines = lines;
+    }
+
+    static long utf8Length(CharSequence s) {
+        long n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) n += 1;
+            else if (c < 0x800) n += 2;
+            else if (Character.isSurrogate(c)) n += 2; // 4 bytes per pair
+            else n += 3;
+        }
+        return n;
+    }
+
+    /**
+     * Finishes the output: the cursor is left on the line after the last frame.
+     */
+    void close() {
+        // clean exit: finish last line and flush print stream
+        printStream.print(INITIALIZE_CSI + MOVE_UP + System.lineSeparator());
+        printStream.flush();
+    }
+
+    /**
+     * Returns the number of frames that were rendered but never written.
+     */
+    long getDroppedFrames() {
+        return stats.getDroppedFrames();
+    }
+
+}
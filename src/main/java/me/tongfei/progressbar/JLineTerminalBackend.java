@@ -0,0 +1,87 @@
+package me.tongfei.progressbar;
+
+import org.jline.terminal.Terminal;
+import org.jline.terminal.TerminalBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes the width of the console from a JLine terminal.
+ * <p>
+ * Creating a JLine terminal probes the system and takes milliseconds, so a single terminal is shared by all the
+ * progress bars. It is created when the first frame needs it, on the rendering thread, and closed when no
+ * progress bar has used it for {@value #IDLE_CLOSE_MILLIS} ms, so that progress bars opened one after the other
+ * do not create a terminal each.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+class JLineTerminalBackend implements TerminalBackend {
+
+    static final long IDLE_CLOSE_MILLIS = 1000;
+
+    // guarded by JLineTerminalBackend.class
+    private static Terminal shared;
+    private static int users = 0;
+    private static ScheduledFuture<?> scheduledClose;
+
+    private boolean acquired = false; // guarded by JLineTerminalBackend.class
+
+    @Override
+    public Terminal getTerminal() {
+        synchronized (JLineTerminalBackend.class) {
+            if (!acquired) {
+                acquired = true;
+                users++;
+                if (scheduledClose != null) {
+                    scheduledClose.cancel(false);
+                    scheduledClose = null;
+                }
+            }
+            if (shared == null) {
+                try {
+                    // Issue #42
+                    // Defaulting to a dumb terminal when a supported terminal can not be correctly created
+                    // see https://github.com/jline/jline3/issues/291
+                    shared = TerminalBuilder.builder().dumb(true).build();
+                } catch (IOException ignored) {
+
+                }
+            }
+            return shared;
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        Terminal t = getTerminal();
+        return t == null ? 0 : t.getWidth();
+    }
+
+    @Override
+    public void close() {
+        synchronized (JLineTerminalBackend.class) {
+            if (!acquired) return;
+            acquired = false;
+            if (--users == 0 && shared != null)
+                scheduledClose = ProgressThread.Scheduler.INSTANCE.schedule(
+                        JLineTerminalBackend::closeIfIdle, IDLE_CLOSE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void closeIfIdle() {
+        synchronized (JLineTerminalBackend.class) {
+            if (users > 0 || shared == null) return;
+            try {
+                shared.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            shared = null;
+            scheduledClose = null;
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package me.tongfei.progressbar;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free, allocation-free log-linear histogram of durations in nanoseconds.
+ * <p>
+ * Every power of two is divided into {@value #SUB_BUCKETS} linear buckets, so that a recorded value
+ * is off by at most 1/{@value #SUB_BUCKETS} of its magnitude. Recording a value is a single atomic
+ * increment (plus a compare-and-set when a new maximum is seen).
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets: values below {@code SUB_BUCKETS} get one bucket each, larger ones {@code SUB_BUCKETS} per power of two. */
+    public static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos Duration in nanoseconds (negative values are recorded as 0)
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(v));
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) { }
+    }
+
+    static int bucketOf(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v); // e >= SUB_BUCKET_BITS
+        int sub = (int) (v >>> (e - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (e - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the smallest value that falls into the given bucket.
+     */
+    public static long bucketLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int e = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (e - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Returns the largest value that falls into the given bucket.
+     */
+    public static long bucketUpperBound(int bucket) {
+        if (bucket == BUCKET_COUNT - 1) return Long.MAX_VALUE;
+        return bucketLowerBound(bucket + 1) - 1;
+    }
+
+    /**
+     * Returns a copy of the bucket counts, indexed as described by {@link #bucketLowerBound(int)}.
+     */
+    public long[] getCounts() {
+        long[] r = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) r[i] = counts.get(i);
+        return r;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) total += counts.get(i);
+        return total;
+    }
+
+    /**
+     * Returns the largest recorded duration in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the duration (in nanoseconds) below which the given percentage of the recorded durations fall,
+     * or 0 if nothing has been recorded.
+     *
+     * @param percentile Between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] c = getCounts();
+        long total = 0;
+        for (long x : c) total += x;
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += c[i];
+            if (seen >= target) return Math.min(bucketUpperBound(i), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) counts.set(i, 0);
+        max.set(0);
+    }
+
+}
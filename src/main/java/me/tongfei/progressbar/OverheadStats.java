@@ -0,0 +1,192 @@
+package me.tongfei.progressbar;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Measures the overhead of progress bars: rendering time, bytes and writes to the print stream,
+ * dropped frames, steps, and steps that were retried because of concurrent steps on the same progress.
+ * <p>
+ * Each progress bar has its own statistics ({@link ProgressBar#getOverheadStats()}), which are also
+ * accumulated into the statistics of all the progress bars of the JVM ({@link #global()}).
+ * A step only updates the statistics of its progress bar: the steps are added to the global statistics
+ * at each frame and when the progress bar is closed, so the global step counts lag by up to a frame.
+ * All the counters are cumulative; the rates shown by {@link #bit()} are computed between frames.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class OverheadStats {
+
+    private static final OverheadStats GLOBAL = new OverheadStats(null);
+
+    private final OverheadStats parent;
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final AtomicLong maxRenderNanos = new AtomicLong();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder steps = new LongAdder();
+    private final LongAdder stepRetries = new LongAdder();
+    // steps and retries already added to the parent, guarded by this
+    private long publishedSteps = 0;
+    private long publishedStepRetries = 0;
+
+    OverheadStats(OverheadStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the statistics accumulated over all the progress bars of this JVM.
+     */
+    public static OverheadStats global() {
+        return GLOBAL;
+    }
+
+    void recordFrame(long nanos) {
+        frames.increment();
+        renderNanos.add(nanos);
+        long max;
+        while (nanos > (max = maxRenderNanos.get()) && !maxRenderNanos.compareAndSet(max, nanos)) { }
+        if (parent != null) parent.recordFrame(nanos);
+    }
+
+    void recordWrite(long bytes) {
+        writes.increment();
+        bytesWritten.add(bytes);
+        if (parent != null) parent.recordWrite(bytes);
+    }
+
+    void recordDroppedFrame() {
+        droppedFrames.increment();
+        if (parent != null) parent.recordDroppedFrame();
+    }
+
+    void recordStep() {
+        steps.increment();
+    }
+
+    void recordStepRetries(int retries) {
+        stepRetries.add(retries);
+    }
+
+    /**
+     * Adds the steps recorded since the previous call to the parent statistics.
+     * Called by the rendering, off the path of the steps.
+     */
+    synchronized void publishSteps() {
+        if (parent == null) return;
+        long s = steps.sum();
+        long r = stepRetries.sum();
+        parent.steps.add(s - publishedSteps);
+        parent.stepRetries.add(r - publishedStepRetries);
+        publishedSteps = s;
+        publishedStepRetries = r;
+    }
+
+    /**
+     * Returns the number of rendered frames.
+     */
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    /**
+     * Returns the total time spent rendering frames (including synchronous writes), in nanoseconds.
+     */
+    public long getRenderNanos() {
+        return renderNanos.sum();
+    }
+
+    /**
+     * Returns the average time spent rendering a frame, in nanoseconds.
+     */
+    public long getAverageRenderNanos() {
+        long n = getFrames();
+        return n == 0 ? 0 : getRenderNanos() / n;
+    }
+
+    /**
+     * Returns the longest time spent rendering a frame, in nanoseconds.
+     */
+    public long getMaxRenderNanos() {
+        return maxRenderNanos.get();
+    }
+
+    /**
+     * Returns the number of writes to the print stream (each followed by a flush).
+     */
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    /**
+     * Returns the number of bytes written to the print stream, as encoded in UTF-8.
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Returns the average number of bytes per write.
+     */
+    public long getAverageBytesPerWrite() {
+        long n = getWrites();
+        return n == 0 ? 0 : getBytesWritten() / n;
+    }
+
+    /**
+     * Returns the number of frames that were rendered but never written, because the print stream was too slow.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.sum();
+    }
+
+    /**
+     * Returns the number of calls to the step methods.
+     */
+    public long getSteps() {
+        return steps.sum();
+    }
+
+    /**
+     * Returns the number of times a step had to be retried because another thread stepped the same progress
+     * at the same time: a measure of the contention on the progress.
+     */
+    public long getStepRetries() {
+        return stepRetries.sum();
+    }
+
+    /**
+     * Returns a bit of information showing the average rendering time and size of the frames,
+     * the dropped frames, and the rates of steps and retried steps since the previous frame,
+     * e.g. {@code overhead: 84.2µs/frame 312B/write 0 dropped 1204331 steps/s 12 retries/s}.
+     */
+    public BitOfInformation bit() {
+        return new BitOfInformation("overhead", new Supplier<String>() {
+            private long lastNanos = System.nanoTime();
+            private long lastSteps = getSteps();
+            private long lastRetries = getStepRetries();
+
+            @Override
+            public synchronized String get() {
+                long now = System.nanoTime();
+                long steps = getSteps();
+                long retries = getStepRetries();
+                double seconds = Math.max(1, now - lastNanos) / 1e9;
+                String s = Util.formatNanos(getAverageRenderNanos()) + "/frame "
+                        + getAverageBytesPerWrite() + "B/write "
+                        + getDroppedFrames() + " dropped "
+                        + Math.round((steps - lastSteps) / seconds) + " steps/s "
+                        + Math.round((retries - lastRetries) / seconds) + " retries/s";
+                lastNanos = now;
+                lastSteps = steps;
+                lastRetries = retries;
+                return s;
+            }
+        });
+    }
+
+}
@@ -1,17 +1,44 @@
 package me.tongfei.progressbar;
 
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedBufferedReader;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedDoubleSpliterator;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedEpochs;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedFileChunks;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedFileTree;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedGZIPInputStream;
 import me.tongfei.progressbar.wrapped.ProgressBarWrappedInputStream;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedIntSpliterator;
 import me.tongfei.progressbar.wrapped.ProgressBarWrappedIterable;
 import me.tongfei.progressbar.wrapped.ProgressBarWrappedIterator;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedLineSpliterator;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedLongSpliterator;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedPrefetchingInputStream;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedPublisher;
 import me.tongfei.progressbar.wrapped.ProgressBarWrappedSpliterator;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedZipInputStream;
+import org.reactivestreams.Publisher;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.InputStream;
 import java.io.PrintStream;
-import java.time.Instant;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.BaseStream;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -24,7 +51,12 @@ public class ProgressBar implements AutoCloseable {
 
     private ProgressState progress;
     private ProgressThread target;
-    private Thread thread;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile LatencyHistogram latency;
+    private final ThreadLocal<StepHandle> handles = new ThreadLocal<>();
+    private final ThreadLocal<ProgressLane> workerLanes = new ThreadLocal<>();
+    private boolean workerLanesShown = false;
+    private PrintStream logStream;
 
     /**
      * Creates a progress bar with the specific task name and initial maximum value.
@@ -75,33 +107,73 @@ public class ProgressBar implements AutoCloseable {
             long unitSize,
             boolean showSpeed
     ) {
-        this.progress = new ProgressState(task, initialMax);
-        this.target = new ProgressThread(progress, style, updateIntervalMillis, os, unitName, unitSize, showSpeed);
-        this.thread = new Thread(target, this.getClass().getName());
+        this(new ProgressState(task, initialMax), style, updateIntervalMillis, os, unitName, unitSize, showSpeed);
+    }
+
+    private ProgressBar(
+            ProgressState progress,
+            ProgressBarStyle style,
+            int updateIntervalMillis,
+            PrintStream os,
+            String unitName,
+            long unitSize,
+            boolean showSpeed
+    ) {
+        this(progress, new ProgressThread(progress, style, updateIntervalMillis, os, unitName, unitSize, showSpeed));
+    }
+
+    /**
+     * Creates a progress bar from its state and its (not yet started) rendering thread.
+     * Used by {@link ProgressBarBuilder}, which configures both.
+     */
+    ProgressBar(ProgressState progress, ProgressThread target) {
+        this.progress = progress;
+        this.target = target;
 
         // starts the progress bar upon construction
-        progress.startTime = Instant.now();
-        thread.start();
+        progress.start();
+        target.run();
     }
 
     /**
-     * Starts this progress bar.
+     * Starts this progress bar. Progress bars are started upon construction:
+     * this only restarts the measurement of the elapsed time.
      *
      * @deprecated Please use the Java try-with-resource pattern instead.
      */
     @Deprecated
     public ProgressBar start() {
-        progress.startTime = Instant.now();
-        thread.start();
+        progress.start();
+        return this;
+    }
+
+    /**
+     * Sets the progress of this progress bar back to 0 and restarts the measurement of the elapsed time,
+     * e.g. to reuse it for another pass over the same data.
+     * @since 0.7.3
+     */
+    public ProgressBar reset() {
+        progress.reset();
         return this;
     }
 
+    /**
+     * Returns the time elapsed since this progress bar was started or {@link #reset()}, in nanoseconds,
+     * as measured by its {@link Ticker}.
+     * @since 0.7.3
+     */
+    public long getElapsedNanos() {
+        return progress.elapsedNanos();
+    }
+
     /**
      * Advances this progress bar by a specific amount.
      *
      * @param n Step size
      */
     public ProgressBar stepBy(long n) {
+        RateLimiter limiter = progress.rateLimiter;
+        if (limiter != null) limiter.acquire(n);
         progress.stepBy(n);
         return this;
     }
@@ -112,6 +184,8 @@ public class ProgressBar implements AutoCloseable {
      * @param n New progress value
      */
     public ProgressBar stepTo(long n) {
+        RateLimiter limiter = progress.rateLimiter;
+        if (limiter != null) limiter.acquire(n - progress.getCurrent());
         progress.stepTo(n);
         return this;
     }
@@ -120,10 +194,125 @@ public class ProgressBar implements AutoCloseable {
      * Advances this progress bar by one step.
      */
     public ProgressBar step() {
+        RateLimiter limiter = progress.rateLimiter;
+        if (limiter != null) limiter.acquire(1);
         progress.stepBy(1);
         return this;
     }
 
+    /**
+     * Limits the rate of the steps of this progress bar (e.g. to read a file without saturating a shared disk):
+     * steps park the stepping thread as long as needed to hold the rate. Can be called at any time to change the rate.
+     * The live rate, the limit and the time spent parked are shown under the progress bar.
+     * Steps made through {@link #handle() step handles} (and so by wrapped streams and {@link #workerLane() worker lanes})
+     * are limited as well: the owning thread of a handle is parked when it flushes its steps, so it may run ahead
+     * of the rate by up to the flush threshold of the handle.
+     * The time is measured by the {@link Ticker} of this progress bar.
+     *
+     * @param unitsPerSecond Target rate, in units of progress per second; no limit if 0 or less
+     * @see RateLimiter
+     * @since 0.7.3
+     */
+    public synchronized ProgressBar setRateLimit(double unitsPerSecond) {
+        if (progress.rateLimiter == null) {
+            RateLimiter limiter = new RateLimiter(unitsPerSecond, RateLimiter.DEFAULT_BURST_SECONDS, progress.ticker);
+            target.showRateLimit(limiter);
+            progress.rateLimiter = limiter;
+        }
+        else progress.rateLimiter.setRate(unitsPerSecond);
+        return this;
+    }
+
+    /**
+     * Returns the rate limiter of this progress bar, or null if its rate was never limited.
+     * @since 0.7.3
+     */
+    public RateLimiter getRateLimiter() {
+        return progress.rateLimiter;
+    }
+
+    /**
+     * Returns the step handle of the calling thread for this progress bar, creating it if needed.
+     * Stepping the handle is cheaper than stepping this progress bar when many threads step it concurrently.
+     * @since 0.7.3
+     */
+    public StepHandle handle() {
+        StepHandle h = handles.get();
+        if (h == null || h.isClosed()) {
+            h = progress.newHandle(Thread.currentThread());
+            handles.set(h);
+        }
+        return h;
+    }
+
+    /**
+     * Advances this progress bar by one step, recording the duration of that step
+     * in the latency histogram of this progress bar.
+     *
+     * @param startNanos Start of the step, as given by the {@link Ticker} of this progress bar
+     *                   (by default {@link System#nanoTime()})
+     * @param endNanos   End of the step, as given by the {@link Ticker} of this progress bar
+     * @since 0.7.3
+     */
+    public ProgressBar stepTimed(long startNanos, long endNanos) {
+        getLatencyHistogram().record(endNanos - startNanos);
+        return step();
+    }
+
+    /**
+     * Runs the given action as one step of this progress bar, recording its duration
+     * in the latency histogram of this progress bar.
+     *
+     * @param action Work done in this step
+     * @since 0.7.3
+     */
+    public ProgressBar stepTimed(Runnable action) {
+        long start = progress.ticker.read();
+        action.run();
+        return stepTimed(start, progress.ticker.read());
+    }
+
+    /**
+     * Computes a value as one step of this progress bar, recording the duration of the computation
+     * in the latency histogram of this progress bar.
+     *
+     * @param action Work done in this step
+     * @return The computed value
+     * @since 0.7.3
+     */
+    public <R> R stepTimed(Supplier<R> action) {
+        long start = progress.ticker.read();
+        R r = action.get();
+        stepTimed(start, progress.ticker.read());
+        return r;
+    }
+
+    /**
+     * Returns the histogram of the step durations recorded by {@code stepTimed}.
+     *
+     * @since 0.7.3
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        LatencyHistogram h = latency;
+        if (h == null) {
+            synchronized (this) {
+                h = latency;
+                if (h == null) latency = h = new LatencyHistogram();
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Shows the median, 99th percentile and maximum step durations below the progress bar.
+     */
+    void showLatency() {
+        LatencyHistogram h = getLatencyHistogram();
+        addBitOfInformation(new BitOfInformation("p50", () -> Util.formatNanos(h.getValueAtPercentile(50))));
+        addBitOfInformation(new BitOfInformation("p99", () -> Util.formatNanos(h.getValueAtPercentile(99))));
+        addBitOfInformation(new BitOfInformation("max", () -> Util.formatNanos(h.getMax())));
+    }
+
     /**
      * Gives a hint to the maximum value of the progress bar.
      *
@@ -143,6 +332,73 @@ public class ProgressBar implements AutoCloseable {
         this.target.addBitOfInformation(bitOfInformation);
     }
 
+    /**
+     * Returns the statistics of the overhead of this progress bar: rendering, output, steps and contention.
+     * @since 0.7.3
+     */
+    public OverheadStats getOverheadStats() {
+        return progress.stats;
+    }
+
+    /**
+     * Adds a lane to this progress bar: a part of the work whose progress and rate are shown under the progress bar,
+     * so that workers progressing slower than others can be spotted.
+     *
+     * @param name Name of the lane
+     * @param max  Amount of work in the lane, negative if unknown
+     * @since 0.7.3
+     */
+    public ProgressLane addLane(String name, long max) {
+        ProgressLane lane = new ProgressLane(name, max, this::stepBy, progress.ticker);
+        target.addLane(lane);
+        return lane;
+    }
+
+    /**
+     * Removes a lane from under this progress bar, e.g. when its part of the work is done.
+     * The progress made in the lane is kept.
+     *
+     * @param lane Lane added to this progress bar
+     * @since 0.7.3
+     */
+    public void removeLane(ProgressLane lane) {
+        target.removeLane(lane);
+    }
+
+    /**
+     * Returns the lane of the calling thread, creating it if needed. The lane steps this progress bar
+     * through the {@link #handle() step handle} of the thread, so that stepping it writes nothing shared with other threads.
+     * @since 0.7.3
+     */
+    public ProgressLane workerLane() {
+        ProgressLane lane = workerLanes.get();
+        if (lane == null) {
+            String name = Thread.currentThread().getName();
+            // ForkJoinPool.commonPool-worker-3 -> worker-3
+            if (name.startsWith("ForkJoinPool") && name.contains("worker-"))
+                name = name.substring(name.lastIndexOf("worker-"));
+            StepHandle handle = handle();
+            lane = new ProgressLane(name, -1, handle::stepBy, progress.ticker);
+            target.addLane(lane);
+            workerLanes.set(lane);
+        }
+        return lane;
+    }
+
+    /**
+     * Returns whether the wrapped spliterators and streams over this progress bar attribute their progress
+     * to the {@link #workerLane() lanes} of the threads traversing them.
+     * See {@link ProgressBarBuilder#showWorkerLanes()}.
+     * @since 0.7.3
+     */
+    public boolean isWorkerLanesShown() {
+        return workerLanesShown;
+    }
+
+    void showWorkerLanes() {
+        workerLanesShown = true;
+    }
+
     /**
      * Stops this progress bar.
      *
@@ -158,15 +414,56 @@ public class ProgressBar implements AutoCloseable {
      * Stops this progress bar, effectively stops tracking the underlying process.
      * Implements the {@link AutoCloseable} interface which enables the try-with-resource
      * pattern with progress bars.
+     * Returns without waiting for the next refresh: the final state is written in-line.
      *
      * @since 0.7.0
      */
     @Override
     public void close() {
+        // closing more than once (e.g. when a wrapped iterator's hasNext() is called again) has no effect
+        if (!closed.compareAndSet(false, true)) return;
+        progress.flushHandles();
         target.shutdownObservation();
         target.shutdownTerminal();
     }
 
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Prints a line above this progress bar. The line is printed with the next frame, together with
+     * all the other lines printed since the previous frame, so that the progress bar is redrawn only once.
+     *
+     * @param line Line to print (without line break)
+     * @since 0.7.3
+     */
+    public void println(String line) {
+        target.log(line);
+    }
+
+    /**
+     * Returns a print stream whose lines are printed above this progress bar, as by {@link #println(String)}.
+     * It can be used as the output of a logger, or be installed with {@link System#setOut(PrintStream)}.
+     *
+     * @since 0.7.3
+     */
+    public synchronized PrintStream getLogStream() {
+        if (logStream == null)
+            logStream = new PrintStream(new ProgressBarLogOutputStream(this), true);
+        return logStream;
+    }
+
+    /**
+     * Returns the number of frames that were dropped because the print stream could not keep up
+     * (only happens with asynchronous output, see {@link ProgressBarBuilder#setAsyncOutput(boolean)}).
+     *
+     * @since 0.7.3
+     */
+    public long getDroppedFrames() {
+        return target.getDroppedFrames();
+    }
+
     /**
      * Sets the extra message at the end of the progress bar.
      *
@@ -262,6 +559,37 @@ public class ProgressBar implements AutoCloseable {
         return new ProgressBarWrappedIterable<>(ts, pbb);
     }
 
+    /**
+     * Wraps an {@link Iterable} that is iterated several times (epochs), reusing a single progress bar
+     * that is reset at each epoch. The epoch and the overall progress, with an estimate of the time left
+     * for all the epochs, are shown under the progress bar.
+     *
+     * @param ts     Underlying iterable, iterated once per epoch
+     * @param epochs Number of epochs
+     * @param task   Name of the progress
+     * @since 0.7.3
+     */
+    public static <T> ProgressBarWrappedEpochs<T> wrapEpochs(Iterable<T> ts, int epochs, String task) {
+        return wrapEpochs(ts, epochs, new ProgressBarBuilder().setTaskName(task));
+    }
+
+    /**
+     * Wraps an {@link Iterable} that is iterated several times (epochs), reusing a single progress bar
+     * that is reset at each epoch. The epoch and the overall progress, with an estimate of the time left
+     * for all the epochs, are shown under the progress bar.
+     *
+     * @param ts     Underlying iterable, iterated once per epoch
+     * @param epochs Number of epochs
+     * @param pbb    An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static <T> ProgressBarWrappedEpochs<T> wrapEpochs(Iterable<T> ts, int epochs, ProgressBarBuilder pbb) {
+        long size = ts.spliterator().getExactSizeIfKnown();
+        // indefinite until the first epoch counts the elements
+        pbb.setInitialMax(size);
+        return new ProgressBarWrappedEpochs<>(ts, size, epochs, pbb.build());
+    }
+
     /**
      * Wraps an {@link InputStream} so that when read, a progress bar is shown to track the reading progress.
      *
@@ -287,6 +615,116 @@ public class ProgressBar implements AutoCloseable {
         return new ProgressBarWrappedInputStream(is, pbb.build());
     }
 
+    /**
+     * Wraps an {@link InputStream} so that when read, a progress bar is shown to track the reading progress.
+     * The underlying stream is read ahead on a background thread into a ring of buffers, whose fill level is shown.
+     *
+     * @param is   Input stream to be wrapped
+     * @param task Name of the progress
+     * @since 0.7.3
+     */
+    public static InputStream wrapPrefetching(InputStream is, String task) {
+        return wrapPrefetching(is, new ProgressBarBuilder().setTaskName(task));
+    }
+
+    /**
+     * Wraps an {@link InputStream} so that when read, a progress bar is shown to track the reading progress.
+     * The underlying stream is read ahead on a background thread into a ring of buffers, whose fill level is shown.
+     * For this function the progress bar can be fully customized by using a {@link ProgressBarBuilder}.
+     *
+     * @param is  Input stream to be wrapped
+     * @param pbb An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static InputStream wrapPrefetching(InputStream is, ProgressBarBuilder pbb) {
+        long size = Util.getInputStreamSize(is);
+        if (size != -1)
+            pbb.setInitialMax(size);
+        return new ProgressBarWrappedPrefetchingInputStream(is, pbb.build());
+    }
+
+    /**
+     * Decompresses a GZIP {@link InputStream}, with a progress bar tracking the compressed bytes read,
+     * against the size of the compressed file if it is a {@link java.io.FileInputStream}.
+     *
+     * @param is  Compressed input stream
+     * @param pbb An instance of a {@link ProgressBarBuilder}
+     * @throws IOException if the GZIP header can not be read
+     * @since 0.7.3
+     */
+    public static ProgressBarWrappedGZIPInputStream wrapGzip(InputStream is, ProgressBarBuilder pbb) throws IOException {
+        long size = Util.getInputStreamSize(is);
+        if (size != -1)
+            pbb.setInitialMax(size);
+        ProgressBar pb = pbb.build();
+        try {
+            return new ProgressBarWrappedGZIPInputStream(is, pb);
+        } catch (IOException e) {
+            pb.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Decompresses a GZIP file, with a progress bar tracking the compressed bytes read against the size of the file.
+     *
+     * @param path GZIP file
+     * @param pbb  An instance of a {@link ProgressBarBuilder}
+     * @throws IOException if the file can not be opened or its GZIP header can not be read
+     * @since 0.7.3
+     */
+    public static ProgressBarWrappedGZIPInputStream wrapGzip(Path path, ProgressBarBuilder pbb) throws IOException {
+        pbb.setInitialMax(Files.size(path));
+        InputStream is = Files.newInputStream(path);
+        try {
+            return wrapGzip(is, pbb);
+        } catch (IOException e) {
+            is.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a ZIP archive from an {@link InputStream}, with a progress bar tracking the compressed bytes read,
+     * against the size of the archive if it is a {@link java.io.FileInputStream}, and a lane for the entry being read.
+     *
+     * @param is  Input stream of the archive
+     * @param pbb An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static ProgressBarWrappedZipInputStream wrapZip(InputStream is, ProgressBarBuilder pbb) {
+        long size = Util.getInputStreamSize(is);
+        if (size != -1)
+            pbb.setInitialMax(size);
+        ProgressBar pb = pbb.build();
+        try {
+            return new ProgressBarWrappedZipInputStream(is, pb);
+        } catch (RuntimeException e) {
+            pb.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a ZIP archive, with a progress bar tracking the compressed bytes read against the size of the archive,
+     * and a lane for the entry being read.
+     *
+     * @param path ZIP archive
+     * @param pbb  An instance of a {@link ProgressBarBuilder}
+     * @throws IOException if the file can not be opened
+     * @since 0.7.3
+     */
+    public static ProgressBarWrappedZipInputStream wrapZip(Path path, ProgressBarBuilder pbb) throws IOException {
+        pbb.setInitialMax(Files.size(path));
+        InputStream is = Files.newInputStream(path);
+        try {
+            return wrapZip(is, pbb);
+        } catch (RuntimeException e) {
+            is.close();
+            throw e;
+        }
+    }
+
     /**
      * Wraps a {@link Spliterator} so that when iterated, a progress bar is shown to track the traversal progress.
      *
@@ -335,4 +773,329 @@ public class ProgressBar implements AutoCloseable {
         return StreamSupport.stream(sp, stream.isParallel());
     }
 
+    /**
+     * Wraps a {@link Spliterator.OfInt} so that when iterated, a progress bar is shown to track the traversal progress.
+     * The elements are not boxed.
+     *
+     * @param sp   Underlying spliterator
+     * @param task Task name
+     * @since 0.7.3
+     */
+    public static Spliterator.OfInt wrap(Spliterator.OfInt sp, String task) {
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName(task);
+        return wrap(sp, pbb);
+    }
+
+    /**
+     * Wraps a {@link Spliterator.OfInt} so that when iterated, a progress bar is shown to track the traversal progress.
+     * For this function the progress bar can be fully customized by using a {@link ProgressBarBuilder}.
+     *
+     * @param sp  Underlying spliterator
+     * @param pbb An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static Spliterator.OfInt wrap(Spliterator.OfInt sp, ProgressBarBuilder pbb) {
+        long size = sp.getExactSizeIfKnown();
+        if (size != -1)
+            pbb.setInitialMax(size);
+        return new ProgressBarWrappedIntSpliterator(sp, pbb.build());
+    }
+
+    /**
+     * Wraps an {@link IntStream} so that when iterated, a progress bar is shown to track the traversal progress.
+     * The elements are not boxed.
+     *
+     * @param stream Underlying stream (can be sequential or parallel)
+     * @param task   Task name
+     * @since 0.7.3
+     */
+    public static IntStream wrap(IntStream stream, String task) {
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName(task);
+        return wrap(stream, pbb);
+    }
+
+    /**
+     * Wraps an {@link IntStream} so that when iterated, a progress bar is shown to track the traversal progress.
+     * For this function the progress bar can be fully customized by using a {@link ProgressBarBuilder}.
+     *
+     * @param stream Underlying stream (can be sequential or parallel)
+     * @param pbb    An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static IntStream wrap(IntStream stream, ProgressBarBuilder pbb) {
+        Spliterator.OfInt sp = wrap(stream.spliterator(), pbb);
+        return StreamSupport.intStream(sp, stream.isParallel());
+    }
+
+    /**
+     * Wraps a {@link Spliterator.OfLong} so that when iterated, a progress bar is shown to track the traversal progress.
+     * The elements are not boxed.
+     *
+     * @param sp   Underlying spliterator
+     * @param task Task name
+     * @since 0.7.3
+     */
+    public static Spliterator.OfLong wrap(Spliterator.OfLong sp, String task) {
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName(task);
+        return wrap(sp, pbb);
+    }
+
+    /**
+     * Wraps a {@link Spliterator.OfLong} so that when iterated, a progress bar is shown to track the traversal progress.
+     * For this function the progress bar can be fully customized by using a {@link ProgressBarBuilder}.
+     *
+     * @param sp  Underlying spliterator
+     * @param pbb An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static Spliterator.OfLong wrap(Spliterator.OfLong sp, ProgressBarBuilder pbb) {
+        long size = sp.getExactSizeIfKnown();
+        if (size != -1)
+            pbb.setInitialMax(size);
+        return new ProgressBarWrappedLongSpliterator(sp, pbb.build());
+    }
+
+    /**
+     * Wraps a {@link LongStream} so that when iterated, a progress bar is shown to track the traversal progress.
+     * The elements are not boxed.
+     *
+     * @param stream Underlying stream (can be sequential or parallel)
+     * @param task   Task name
+     * @since 0.7.3
+     */
+    public static LongStream wrap(LongStream stream, String task) {
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName(task);
+        return wrap(stream, pbb);
+    }
+
+    /**
+     * Wraps a {@link LongStream} so that when iterated, a progress bar is shown to track the traversal progress.
+     * For this function the progress bar can be fully customized by using a {@link ProgressBarBuilder}.
+     *
+     * @param stream Underlying stream (can be sequential or parallel)
+     * @param pbb    An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static LongStream wrap(LongStream stream, ProgressBarBuilder pbb) {
+        Spliterator.OfLong sp = wrap(stream.spliterator(), pbb);
+        return StreamSupport.longStream(sp, stream.isParallel());
+    }
+
+    /**
+     * Wraps a {@link Spliterator.OfDouble} so that when iterated, a progress bar is shown to track the traversal progress.
+     * The elements are not boxed.
+     *
+     * @param sp   Underlying spliterator
+     * @param task Task name
+     * @since 0.7.3
+     */
+    public static Spliterator.OfDouble wrap(Spliterator.OfDouble sp, String task) {
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName(task);
+        return wrap(sp, pbb);
+    }
+
+    /**
+     * Wraps a {@link Spliterator.OfDouble} so that when iterated, a progress bar is shown to track the traversal progress.
+     * For this function the progress bar can be fully customized by using a {@link ProgressBarBuilder}.
+     *
+     * @param sp  Underlying spliterator
+     * @param pbb An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static Spliterator.OfDouble wrap(Spliterator.OfDouble sp, ProgressBarBuilder pbb) {
+        long size = sp.getExactSizeIfKnown();
+        if (size != -1)
+            pbb.setInitialMax(size);
+        return new ProgressBarWrappedDoubleSpliterator(sp, pbb.build());
+    }
+
+    /**
+     * Wraps a {@link DoubleStream} so that when iterated, a progress bar is shown to track the traversal progress.
+     * The elements are not boxed.
+     *
+     * @param stream Underlying stream (can be sequential or parallel)
+     * @param task   Task name
+     * @since 0.7.3
+     */
+    public static DoubleStream wrap(DoubleStream stream, String task) {
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName(task);
+        return wrap(stream, pbb);
+    }
+
+    /**
+     * Wraps a {@link DoubleStream} so that when iterated, a progress bar is shown to track the traversal progress.
+     * For this function the progress bar can be fully customized by using a {@link ProgressBarBuilder}.
+     *
+     * @param stream Underlying stream (can be sequential or parallel)
+     * @param pbb    An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static DoubleStream wrap(DoubleStream stream, ProgressBarBuilder pbb) {
+        Spliterator.OfDouble sp = wrap(stream.spliterator(), pbb);
+        return StreamSupport.doubleStream(sp, stream.isParallel());
+    }
+
+    /**
+     * Opens a file for reading text, with a progress bar tracking the number of bytes read against the size of the file.
+     * The progress is taken from the position in the file, so it does not cost anything per line.
+     *
+     * @param path    File to read
+     * @param charset Charset of the file
+     * @param pbb     An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static BufferedReader newBufferedReader(Path path, Charset charset, ProgressBarBuilder pbb) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        ProgressBar pb = null;
+        try {
+            pb = pbb.setInitialMax(channel.size()).build();
+            return new ProgressBarWrappedBufferedReader(channel, charset, pb);
+        } catch (IOException | RuntimeException e) {
+            closeOnFailure(e, pb, channel);
+            throw e;
+        }
+    }
+
+    // closes what was opened before a failure, so that neither the file nor the refresh of the progress bar leaks
+    private static void closeOnFailure(Exception e, ProgressBar pb, FileChannel channel) {
+        if (pb != null) pb.close();
+        try {
+            channel.close();
+        } catch (IOException suppressed) {
+            e.addSuppressed(suppressed);
+        }
+    }
+
+    /**
+     * Reads all the lines of a UTF-8 file as a stream, as {@link java.nio.file.Files#lines(Path)},
+     * with a progress bar tracking the number of bytes read against the size of the file.
+     *
+     * @param path File to read
+     * @param task Task name
+     * @since 0.7.3
+     */
+    public static Stream<String> lines(Path path, String task) throws IOException {
+        return lines(path, StandardCharsets.UTF_8, new ProgressBarBuilder().setTaskName(task));
+    }
+
+    /**
+     * Reads all the lines of a file as a stream, as {@link java.nio.file.Files#lines(Path, Charset)},
+     * with a progress bar tracking the number of bytes read against the size of the file.
+     * The progress bar advances once per block read, not once per line.
+     * For UTF-8, US-ASCII and ISO-8859-1 files, the stream can be made parallel: the file is then split at line boundaries.
+     *
+     * @param path    File to read
+     * @param charset Charset of the file
+     * @param pbb     An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static Stream<String> lines(Path path, Charset charset, ProgressBarBuilder pbb) throws IOException {
+        if (!ProgressBarWrappedLineSpliterator.supports(charset)) {
+            BufferedReader reader = newBufferedReader(path, charset, pbb);
+            return reader.lines().onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        ProgressBar pb = null;
+        try {
+            pb = pbb.setInitialMax(channel.size()).build();
+            ProgressBarWrappedLineSpliterator sp = new ProgressBarWrappedLineSpliterator(channel, charset, pb);
+            return StreamSupport.stream(sp, false).onClose(sp::close);
+        } catch (IOException | RuntimeException e) {
+            closeOnFailure(e, pb, channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Performs an action on every line of a large file in parallel, with a progress bar tracking the number of bytes read.
+     * The file is split at line boundaries into one chunk per worker of the common {@link ForkJoinPool};
+     * the progress and rate of each chunk are shown under the progress bar.
+     * See {@link ProgressBarWrappedFileChunks} to choose the pool and the number of chunks.
+     *
+     * @param path    File to read
+     * @param charset Charset of the file: UTF-8, US-ASCII or ISO-8859-1
+     * @param pbb     An instance of a {@link ProgressBarBuilder}
+     * @param action  Action performed on each line, from several threads
+     * @since 0.7.3
+     */
+    public static void forEachLine(Path path, Charset charset, ProgressBarBuilder pbb, Consumer<? super String> action) throws IOException {
+        if (!ProgressBarWrappedLineSpliterator.supports(charset))
+            throw new IllegalArgumentException("Lines can not be split on line feed bytes in " + charset);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ProgressBar pb = null;
+        ProgressBarWrappedFileChunks chunks;
+        try {
+            pb = pbb.setInitialMax(channel.size()).build();
+            chunks = new ProgressBarWrappedFileChunks(channel, charset, pool.getParallelism(), pb);
+        } catch (IOException | RuntimeException e) {
+            closeOnFailure(e, pb, channel);
+            throw e;
+        }
+        try (ProgressBarWrappedFileChunks c = chunks) {
+            c.forEachLine(pool, action);
+        }
+    }
+
+    /**
+     * Walks a file tree, as {@link java.nio.file.Files#walk}, with a progress bar tracking the number of bytes
+     * of the regular files reached so far. The total size is computed by a parallel scan of the tree
+     * that runs while the stream is processed.
+     *
+     * @param root Root of the file tree
+     * @param task Task name
+     * @since 0.7.3
+     */
+    public static Stream<Path> walk(Path root, String task) throws IOException {
+        return walk(root, new ProgressBarBuilder().setTaskName(task), ProgressBarWrappedFileTree.Unit.BYTES);
+    }
+
+    /**
+     * Walks a file tree, as {@link java.nio.file.Files#walk}, with a progress bar tracking the regular files
+     * reached so far, either by count or by size. The total is computed by a parallel scan of the tree
+     * that runs while the stream is processed.
+     * For this function the progress bar can be fully customized by using a {@link ProgressBarBuilder}.
+     *
+     * @param root Root of the file tree
+     * @param pbb  An instance of a {@link ProgressBarBuilder}
+     * @param unit Whether progress is counted in files or in bytes
+     * @since 0.7.3
+     */
+    public static Stream<Path> walk(Path root, ProgressBarBuilder pbb, ProgressBarWrappedFileTree.Unit unit) throws IOException {
+        return new ProgressBarWrappedFileTree(root, pbb.setInitialMax(0).build(), unit).stream();
+    }
+
+    /**
+     * Wraps a Reactive Streams {@link Publisher} so that when subscribed, a progress bar is shown to track
+     * the number of elements received. Since the maximum is unknown, it follows the demand of the subscriber.
+     * For {@code java.util.concurrent.Flow} publishers, convert them first using {@code org.reactivestreams.FlowAdapters}.
+     *
+     * @param publisher Underlying publisher
+     * @param task      Task name
+     * @since 0.7.3
+     */
+    public static <T> Publisher<T> wrap(Publisher<T> publisher, String task) {
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName(task);
+        return wrap(publisher, pbb);
+    }
+
+    /**
+     * Wraps a Reactive Streams {@link Publisher} so that when subscribed, a progress bar is shown to track
+     * the number of elements received. If the builder has an initial max (e.g. the known number of elements),
+     * it is used as the maximum; otherwise the maximum follows the demand of the subscriber.
+     *
+     * @param publisher Underlying publisher
+     * @param pbb       An instance of a {@link ProgressBarBuilder}
+     * @since 0.7.3
+     */
+    public static <T> Publisher<T> wrap(Publisher<T> publisher, ProgressBarBuilder pbb) {
+        return new ProgressBarWrappedPublisher<>(publisher, pbb);
+    }
+
 }
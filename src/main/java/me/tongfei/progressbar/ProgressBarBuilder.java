@@ -1,6 +1,9 @@
 package me.tongfei.progressbar;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 
 /**
  * Builder class for {@link ProgressBar}s.
@@ -17,6 +20,19 @@ public class ProgressBarBuilder {
     private String unitName = "";
     private long unitSize = 1;
     private boolean showSpeed = false;
+    private boolean showLatency = false;
+    private boolean showRuntime = false;
+    private boolean showOverhead = false;
+    private boolean showWorkerLanes = false;
+    private int terminalWidth = -1;
+    private boolean inlineRendering = false;
+    private Path timelineFile = null;
+    private long handleFlushThreshold = 1024;
+    private long handleMaxDelayMillis = 0;
+    private Ticker ticker = Ticker.SYSTEM;
+    private ProgressBarLayout layout = null;
+    private boolean asyncOutput = false;
+    private double rateLimit = 0;
 
     public ProgressBarBuilder() { }
 
@@ -56,16 +72,163 @@ public class ProgressBarBuilder {
         return this;
     }
 
+    /**
+     * Shows the median, 99th percentile and maximum durations of the steps
+     * recorded by {@link ProgressBar#stepTimed(Runnable)}.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder showLatency() {
+        this.showLatency = true;
+        return this;
+    }
+
+    /**
+     * Shows the heap, garbage collections, CPU load and threads of the JVM under the progress bar.
+     * See {@link RuntimeBits}.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder showRuntime() {
+        this.showRuntime = true;
+        return this;
+    }
+
+    /**
+     * Shows the overhead of the progress bar itself under it. See {@link OverheadStats#bit()}.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder showOverhead() {
+        this.showOverhead = true;
+        return this;
+    }
+
+    /**
+     * Limits the rate of the steps of the progress bar, in units of progress per second.
+     * See {@link ProgressBar#setRateLimit(double)}.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder setRateLimit(double unitsPerSecond) {
+        this.rateLimit = unitsPerSecond;
+        return this;
+    }
+
+    /**
+     * Renders the frames in the threads stepping the progress bar, without any background thread.
+     * A step checks a threshold with a single volatile read; the step reaching it renders a frame
+     * if the update interval has elapsed, so output is still rate-limited.
+     * Frames are only rendered while the progress bar is stepped, and when it is closed.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder setInlineRendering(boolean inlineRendering) {
+        this.inlineRendering = inlineRendering;
+        return this;
+    }
+
+    /**
+     * Writes to a plain ANSI console of the given width, instead of probing the terminal with JLine.
+     * This is the fastest way to start, e.g. for command-line tools compiled to native images.
+     * Without this option, the plain ANSI console is also used in GraalVM native images
+     * or if the system property {@code me.tongfei.progressbar.terminal} is {@code ansi}.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder setTerminalWidth(int columns) {
+        this.terminalWidth = columns;
+        return this;
+    }
+
+    /**
+     * Shows the progress of each thread traversing a wrapped parallel stream or spliterator in its own lane,
+     * with its rate and the estimated size left in the split it is traversing, so that imbalance between workers is visible.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder showWorkerLanes() {
+        this.showWorkerLanes = true;
+        return this;
+    }
+
+    /**
+     * Sets when the steps of {@link StepHandle}s are added to the progress bar: when a handle accumulates
+     * {@code threshold} steps, or at the first frame after its steps are {@code maxDelayMillis} old
+     * (by default 1024 steps, or at every frame).
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder setStepHandleFlush(long threshold, long maxDelayMillis) {
+        this.handleFlushThreshold = threshold;
+        this.handleMaxDelayMillis = maxDelayMillis;
+        return this;
+    }
+
+    /**
+     * Records the state of the progress bar and its bits of information at each frame into a file,
+     * to be read with {@link ProgressTimeline}. The file is overwritten.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder setTimelineFile(Path timelineFile) {
+        this.timelineFile = timelineFile;
+        return this;
+    }
+
+    /**
+     * Sets the source of time used for the elapsed time, speed and ETA (by default {@link Ticker#SYSTEM}).
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder setTicker(Ticker ticker) {
+        this.ticker = ticker;
+        return this;
+    }
+
+    /**
+     * Sets the layout of the progress bar line, e.g. {@code "{task} {bar} {percent} {eta}"}.
+     * See {@link ProgressBarLayout.Field} for the available placeholders.
+     * @throws IllegalArgumentException if the layout is invalid
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder setLayout(String layout) {
+        this.layout = ProgressBarLayout.compile(layout);
+        return this;
+    }
+
+    /**
+     * Writes the progress bar on a separate thread, shared by all the progress bars with asynchronous output.
+     * Rendering then never blocks on a slow or stalled print stream: frames that can not be written in time
+     * are dropped, only the newest one is kept. Closing does not wait for the last frame to be written.
+     * @since 0.7.3
+     */
+    public ProgressBarBuilder setAsyncOutput(boolean asyncOutput) {
+        this.asyncOutput = asyncOutput;
+        return this;
+    }
+
     public ProgressBar build() {
-        return new ProgressBar(
-                task,
-                initialMax,
+        ProgressState progress = new ProgressState(task, initialMax, ticker);
+        progress.handleFlushThreshold = handleFlushThreshold;
+        progress.handleMaxDelayNanos = handleMaxDelayMillis * 1000000L;
+        ProgressThread target = new ProgressThread(
+                progress,
+                style,
                 updateIntervalMillis,
                 stream,
-                style,
                 unitName,
                 unitSize,
                 showSpeed
         );
+        if (layout != null) target.setLayout(layout);
+        if (terminalWidth > 0) target.setTerminal(new AnsiTerminalBackend(terminalWidth));
+        if (inlineRendering) target.setInline();
+        if (asyncOutput) target.setAsyncOutput();
+        if (timelineFile != null) {
+            try {
+                target.setRecorder(new TimelineRecorder(timelineFile, task, System.currentTimeMillis()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        ProgressBar pb = new ProgressBar(progress, target);
+        if (showLatency) pb.showLatency();
+        if (showRuntime)
+            for (BitOfInformation bit : RuntimeBits.all()) pb.addBitOfInformation(bit);
+        if (showOverhead) pb.addBitOfInformation(pb.getOverheadStats().bit());
+        if (showWorkerLanes) pb.showWorkerLanes();
+        if (rateLimit > 0) pb.setRateLimit(rateLimit);
+        return pb;
     }
 }
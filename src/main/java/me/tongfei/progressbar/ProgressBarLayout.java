@@ -0,0 +1,133 @@
+package me.tongfei.progressbar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled layout of the progress bar line, e.g. {@code "{task} {percent} {bar} {ratio} ({elapsed} / {eta})"}.
+ * <p>
+ * Placeholders between braces are replaced by the corresponding {@link Field} every frame;
+ * everything else is printed as is ({@code {{} and {@code }}} stand for literal braces).
+ * The format is parsed once: each frame is then filled in segment by segment, with the display widths
+ * of the literal parts computed in advance.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarLayout {
+
+    /** The fields that can be used in a layout. */
+    public enum Field {
+        /** Task name. */
+        TASK("task"),
+        /** Percentage of completion. */
+        PERCENT("percent"),
+        /** The bar itself, including its brackets. It takes all the width left by the other segments. */
+        BAR("bar"),
+        /** Current and maximum value, in the unit of the progress bar. */
+        RATIO("ratio"),
+        /** Elapsed time. */
+        ELAPSED("elapsed"),
+        /** Estimated remaining time. */
+        ETA("eta"),
+        /** Average speed, in the unit of the progress bar. */
+        SPEED("speed"),
+        /** The extra message. */
+        MESSAGE("message");
+
+        final String placeholder;
+
+        Field(String placeholder) {
+            this.placeholder = placeholder;
+        }
+    }
+
+    /** The default layout, with the speed only shown if enabled on the builder. */
+    public static final ProgressBarLayout DEFAULT = compile("{task} {percent} {bar} {ratio} ({elapsed} / {eta}) {speed}{message}");
+
+    private final String format;
+
+    // segment i is the literal literals[i] (of display width widths[i]) if fields[i] is null, the field fields[i] otherwise
+    final String[] literals;
+    final int[] widths;
+    final Field[] fields;
+    final int barIndex;
+
+    private ProgressBarLayout(String format, List<Object> segments) {
+        this.format = format;
+        int n = segments.size();
+        this.literals = new String[n];
+        this.widths = new int[n];
+        this.fields = new Field[n];
+        int bar = -1;
+        for (int i = 0; i < n; i++) {
+            Object s = segments.get(i);
+            if (s instanceof Field) {
+                fields[i] = (Field) s;
+                if (s == Field.BAR) {
+                    if (bar != -1) throw new IllegalArgumentException("Layout contains more than one {bar}: " + format);
+                    bar = i;
+                }
+            } else {
+                literals[i] = (String) s;
+                widths[i] = Util.displayWidth(literals[i]);
+            }
+        }
+        this.barIndex = bar;
+    }
+
+    /**
+     * Compiles a layout.
+     *
+     * @param format Layout, with placeholders such as {@code {task}} or {@code {bar}} (see {@link Field})
+     * @throws IllegalArgumentException if the layout contains an unknown or unterminated placeholder
+     */
+    public static ProgressBarLayout compile(String format) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i);
+            if ((c == '{' || c == '}') && i + 1 < format.length() && format.charAt(i + 1) == c) {
+                literal.append(c);
+                i += 2;
+            } else if (c == '{') {
+                int end = format.indexOf('}', i);
+                if (end == -1) throw new IllegalArgumentException("Unterminated placeholder in layout: " + format);
+                String name = format.substring(i + 1, end);
+                Field field = null;
+                for (Field f : Field.values())
+                    if (f.placeholder.equals(name)) field = f;
+                if (field == null) throw new IllegalArgumentException("Unknown placeholder {" + name + "} in layout: " + format);
+                if (literal.length() > 0) {
+                    segments.add(literal.toString());
+                    literal.setLength(0);
+                }
+                segments.add(field);
+                i = end + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        if (literal.length() > 0) segments.add(literal.toString());
+        return new ProgressBarLayout(format, segments);
+    }
+
+    /**
+     * Returns the format this layout was compiled from.
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    int size() {
+        return fields.length;
+    }
+
+    @Override
+    public String toString() {
+        return format;
+    }
+
+}
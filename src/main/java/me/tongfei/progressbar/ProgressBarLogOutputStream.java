@@ -0,0 +1,63 @@
+package me.tongfei.progressbar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * An output stream that prints whatever is written to it above a progress bar, line by line,
+ * through {@link ProgressBar#println(String)}. Useful as the target of a logging framework's
+ * output stream appender (or {@link System#setOut}) while a progress bar is shown.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarLogOutputStream extends OutputStream {
+
+    private final ProgressBar pb;
+    private final Charset charset;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+    public ProgressBarLogOutputStream(ProgressBar pb) {
+        this(pb, Charset.defaultCharset());
+    }
+
+    public ProgressBarLogOutputStream(ProgressBar pb, Charset charset) {
+        this.pb = pb;
+        this.charset = charset;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (b == '\n') emitLine();
+        else line.write(b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        int start = off;
+        for (int i = off; i < off + len; i++) {
+            if (b[i] == '\n') {
+                line.write(b, start, i - start);
+                emitLine();
+                start = i + 1;
+            }
+        }
+        line.write(b, start, off + len - start);
+    }
+
+    /**
+     * Prints the incomplete last line, if any.
+     */
+    @Override
+    public synchronized void close() {
+        if (line.size() > 0) emitLine();
+    }
+
+    private void emitLine() {
+        String s = new String(line.toByteArray(), charset);
+        if (s.endsWith("\r")) s = s.substring(0, s.length() - 1);
+        line.reset();
+        pb.println(s);
+    }
+
+}
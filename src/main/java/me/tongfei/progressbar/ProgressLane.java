@@ -0,0 +1,84 @@
+package me.tongfei.progressbar;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A part of the work of a progress bar, typically processed by one worker,
+ * whose progress and rate are shown under the progress bar.
+ * Stepping a lane also steps its progress bar.
+ * Lanes are created by {@link ProgressBar#addLane(String, long)}, or per thread by {@link ProgressBar#workerLane()}.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressLane {
+
+    private final String name;
+    private final long max;
+    private final LongConsumer parent;
+    private final Ticker ticker;
+    private final AtomicLong current = new AtomicLong();
+    private volatile long remaining = -1;
+    // the rate of a lane is measured from its first step to its last one
+    private volatile boolean started = false;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    ProgressLane(String name, long max, LongConsumer parent, Ticker ticker) {
+        this.name = name;
+        this.max = max;
+        this.parent = parent;
+        this.ticker = ticker;
+    }
+
+    public ProgressLane stepBy(long n) {
+        if (!started) {
+            startNanos = ticker.read();
+            started = true;
+        }
+        if (current.addAndGet(n) >= max && max >= 0) endNanos = ticker.read();
+        parent.accept(n);
+        return this;
+    }
+
+    public ProgressLane step() {
+        return stepBy(1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCurrent() {
+        return current.get();
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the estimated amount of work left in what this lane is currently working on
+     * (e.g. the split of a stream traversed by a worker), or a negative value if unknown.
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(long remaining) {
+        this.remaining = remaining;
+    }
+
+    public boolean isFinished() {
+        return max >= 0 && current.get() >= max;
+    }
+
+    /**
+     * Returns the time during which this lane progressed, in nanoseconds.
+     */
+    long activeNanos() {
+        if (!started) return 0;
+        return (isFinished() ? endNanos : ticker.read()) - startNanos;
+    }
+
+}
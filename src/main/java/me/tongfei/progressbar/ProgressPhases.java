@@ -0,0 +1,238 @@
+package me.tongfei.progressbar;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A task made of consecutive phases with different costs per unit of work (e.g. scan, transform, write),
+ * tracked by a single progress bar.
+ * <p>
+ * The progress bar shows the progress of the current phase: it is reset at the start of each phase.
+ * The current phase and the overall progress are shown under it. Each phase has a weight, its share of the duration
+ * of the whole task: the overall progress is the weighted progress of the phases, and the overall time left
+ * combines the rate of the current phase with the time per unit of weight measured by the phases run so far.
+ * The weights measured by a run ({@link #getMeasuredWeights()}) can be given to the phases of the next run.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressPhases implements AutoCloseable {
+
+    /**
+     * A phase of a {@link ProgressPhases}.
+     */
+    public static class Phase {
+
+        private final String name;
+        private volatile long max;
+        private final double weight;
+        private volatile long durationNanos = -1;
+
+        Phase(String name, long max, double weight) {
+            this.name = name;
+            this.max = max;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the amount of work of this phase, negative if unknown.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        /**
+         * Returns how long this phase ran, in nanoseconds, or -1 if it is not completed.
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+    }
+
+    private final ProgressBar pb;
+    // read without locking by the rendering, which may run in a step
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private volatile int current = -1;
+
+    /**
+     * @param pb Progress bar, showing the progress of the current phase
+     */
+    public ProgressPhases(ProgressBar pb) {
+        this.pb = pb;
+        pb.addBitOfInformation(new BitOfInformation("phase", this::renderPhase));
+        pb.addBitOfInformation(new BitOfInformation("overall", this::renderOverall));
+    }
+
+    /**
+     * Adds a phase after the ones already added.
+     *
+     * @param name   Name of the phase
+     * @param max    Amount of work of the phase, negative if unknown (it can be given when the phase starts)
+     * @param weight Share of the duration of the task, relative to the weights of the other phases
+     */
+    public synchronized ProgressPhases addPhase(String name, long max, double weight) {
+        if (!(weight > 0)) throw new IllegalArgumentException("Weight of a phase must be positive: " + weight);
+        phases.add(new Phase(name, max, weight));
+        return this;
+    }
+
+    /**
+     * Completes the current phase, if any, and starts the next one.
+     *
+     * @return The started phase
+     * @throws IllegalStateException if there is no next phase
+     */
+    public Phase next() {
+        return next(-2);
+    }
+
+    /**
+     * Completes the current phase, if any, and starts the next one with a known amount of work.
+     *
+     * @param max Amount of work of the started phase
+     * @return The started phase
+     * @throws IllegalStateException if there is no next phase
+     */
+    public synchronized Phase next(long max) {
+        if (current + 1 >= phases.size())
+            throw new IllegalStateException("No phase after the " + phases.size() + " phases");
+        completeCurrent();
+        Phase phase = phases.get(current + 1);
+        if (max != -2) phase.max = max;
+        pb.reset();
+        pb.maxHint(phase.max);
+        current++;
+        return phase;
+    }
+
+    private void completeCurrent() {
+        if (current >= 0 && current < phases.size() && phases.get(current).durationNanos < 0) {
+            Phase phase = phases.get(current);
+            if (phase.max < 0) phase.max = pb.getCurrent();
+            phase.durationNanos = pb.getElapsedNanos();
+        }
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    public List<Phase> getPhases() {
+        return Collections.unmodifiableList(phases);
+    }
+
+    /**
+     * Returns the current phase, or null if no phase was started.
+     */
+    public Phase getCurrentPhase() {
+        int c = current;
+        return c < 0 ? null : phases.get(c);
+    }
+
+    /**
+     * Returns the share of the duration of the task taken by each phase, measured by the completed phases,
+     * to be used as weights for the next run. Phases that were not completed keep their weight.
+     */
+    public double[] getMeasuredWeights() {
+        double measuredNanos = 0, measuredWeight = 0, total = 0;
+        for (Phase p : phases) {
+            if (p.durationNanos >= 0) {
+                measuredNanos += p.durationNanos;
+                measuredWeight += p.weight;
+            }
+        }
+        double[] weights = new double[phases.size()];
+        for (int i = 0; i < weights.length; i++) {
+            Phase p = phases.get(i);
+            // measured durations are scaled to the weights they replace, so that unmeasured weights stay comparable
+            weights[i] = p.durationNanos >= 0 && measuredNanos > 0 ? p.durationNanos / measuredNanos * measuredWeight : p.weight;
+            total += weights[i];
+        }
+        for (int i = 0; i < weights.length; i++) weights[i] /= total;
+        return weights;
+    }
+
+    // fraction of the current phase done, or -1 if unknown
+    private double currentFraction(Phase phase) {
+        if (phase.max <= 0) return phase.max == 0 ? 1 : -1;
+        return Math.min(1.0, (double) pb.getCurrent() / phase.max);
+    }
+
+    /**
+     * Returns the overall progress of the task, between 0 and 1, or a negative value if unknown.
+     */
+    public double getProgress() {
+        int c = current;
+        double done = 0, total = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            Phase p = phases.get(i);
+            total += p.weight;
+            if (i < c) done += p.weight;
+            else if (i == c) {
+                double f = currentFraction(p);
+                if (f < 0) return -1;
+                done += f * p.weight;
+            }
+        }
+        return total == 0 ? -1 : done / total;
+    }
+
+    /**
+     * Returns the estimated time left for the whole task, in nanoseconds, or a negative value if unknown.
+     * The current phase is estimated from its own rate, the next phases from their weights and the time per unit
+     * of weight measured so far.
+     */
+    public long estimateRemainingNanos() {
+        int c = current;
+        if (c < 0) return -1;
+        Phase phase = phases.get(c);
+        double f = currentFraction(phase);
+        if (f <= 0) return -1;
+        long elapsed = pb.getElapsedNanos();
+        double spentNanos = elapsed, spentWeight = f * phase.weight;
+        for (int i = 0; i < c; i++) {
+            spentNanos += phases.get(i).durationNanos;
+            spentWeight += phases.get(i).weight;
+        }
+        double nanosPerWeight = spentNanos / spentWeight;
+        double remaining = elapsed * (1 - f) / f;
+        for (int i = c + 1; i < phases.size(); i++)
+            remaining += phases.get(i).weight * nanosPerWeight;
+        return (long) remaining;
+    }
+
+    private String renderPhase() {
+        int c = current;
+        if (c < 0) return "-";
+        return phases.get(c).name + " (" + (c + 1) + "/" + phases.size() + ")";
+    }
+
+    private String renderOverall() {
+        double progress = getProgress();
+        long remaining = estimateRemainingNanos();
+        return (progress < 0 ? "?" : String.valueOf((int) Math.floor(progress * 100))) + "% ("
+                + (remaining < 0 ? "?" : Util.formatDuration(remaining)) + " left)";
+    }
+
+    /**
+     * Completes the current phase and closes the progress bar.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            completeCurrent();
+        }
+        pb.close();
+    }
+
+}
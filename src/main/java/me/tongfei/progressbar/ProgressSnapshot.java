@@ -0,0 +1,56 @@
+package me.tongfei.progressbar;
+
+import java.time.Duration;
+
+/**
+ * An immutable view of the state of a progress tracker at a given time.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressSnapshot {
+
+    private final String task;
+    private final long current;
+    private final long max;
+    private final long elapsedNanos;
+
+    ProgressSnapshot(String task, long current, long max, long elapsedNanos) {
+        this.task = task;
+        this.current = current;
+        this.max = max;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    public long getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the maximum value, or -1 if the progress is indefinite.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * Returns the average throughput since the tracker started, in units per second.
+     */
+    public double getRate() {
+        if (elapsedNanos <= 0) return 0.0;
+        return current * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return task + " " + current + "/" + (max < 0 ? "?" : String.valueOf(max)) + " (" + Util.formatDuration(elapsedNanos) + ")";
+    }
+
+}
@@ -1,6 +1,9 @@
 package me.tongfei.progressbar;
 
-import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
 
 /**
@@ -10,22 +13,55 @@ import java.util.function.Supplier;
  */
 class ProgressState {
 
+    private static final AtomicLongFieldUpdater<ProgressState> CURRENT =
+            AtomicLongFieldUpdater.newUpdater(ProgressState.class, "current");
+    private static final AtomicLongFieldUpdater<ProgressState> NEXT_FRAME_AT =
+            AtomicLongFieldUpdater.newUpdater(ProgressState.class, "nextFrameAt");
+
     String task;
-    private long current = 0;
+    private volatile long current = 0;
     boolean indefinite = false;
-    long max = 0;
-    Instant startTime = null;
+    volatile long max = 0;
+    final OverheadStats stats;
+    private final List<StepHandle> handles = new CopyOnWriteArrayList<>();
+    long handleFlushThreshold = 1024;
+    long handleMaxDelayNanos = 0;
+    // limits the steps of the progress bar and of its handles, if set
+    volatile RateLimiter rateLimiter;
+
+    // inline rendering: the step reaching this value renders the next frame
+    private volatile long nextFrameAt = Long.MAX_VALUE;
+    private LongUnaryOperator inlineRenderer;
+    final Ticker ticker;
+    long startNanos = 0;
     String extraMessage = "";
 
     private Supplier<Long> supplier;
 
 
     ProgressState(String task, long initialMax) {
+        this(task, initialMax, Ticker.SYSTEM);
+    }
+
+    ProgressState(String task, long initialMax, Ticker ticker) {
         this.task = task;
+        this.stats = new OverheadStats(OverheadStats.global());
+        this.ticker = ticker;
         this.max = initialMax;
         if (initialMax < 0) indefinite = true;
     }
 
+    void start() {
+        startNanos = ticker.read();
+    }
+
+    /**
+     * Returns the time elapsed since this progress was started, in nanoseconds.
+     */
+    long elapsedNanos() {
+        return ticker.read() - startNanos;
+    }
+
     public void bindCurrentTo(Supplier<Long> supplier) {
         this.supplier = supplier;
     }
@@ -42,14 +78,96 @@ class ProgressState {
         max = n;
     }
 
-    synchronized void stepBy(long n) {
-        current += n;
-        if (current > max) max = current;
+    // steps do not lock: concurrent steps are retried, and the retries are counted as contention
+    void stepBy(long n) {
+        stats.recordStep();
+        long c = current;
+        int retries = 0;
+        while (!CURRENT.compareAndSet(this, c, c + n)) {
+            retries++;
+            c = current;
+        }
+        if (retries > 0) stats.recordStepRetries(retries);
+        if (c + n > max) raiseMax(c + n);
+        if (c + n >= nextFrameAt) frameDue(c + n);
+    }
+
+    // replaces the current value atomically: a concurrent stepBy is either overwritten or applied on top of it
+    void stepTo(long n) {
+        stats.recordStep();
+        CURRENT.getAndSet(this, n);
+        if (n > max) raiseMax(n);
+        if (n >= nextFrameAt) frameDue(n);
+    }
+
+    /**
+     * Renders frames from the threads stepping this progress: the renderer is called with the current value by the step
+     * that reaches the threshold, and returns the next threshold.
+     */
+    void startInlineRendering(LongUnaryOperator renderer, long firstFrameAt) {
+        inlineRenderer = renderer;
+        nextFrameAt = firstFrameAt;
+    }
+
+    /**
+     * Sets the progress back to 0 and restarts the measurement of time.
+     */
+    synchronized void reset() {
+        flushHandles();
+        current = 0;
+        startNanos = ticker.read();
+        // the next step renders a frame and sets the next threshold,
+        // unless a step is rendering a frame right now (and will set the threshold itself)
+        long next;
+        while ((next = nextFrameAt) != Long.MAX_VALUE && !NEXT_FRAME_AT.compareAndSet(this, next, 0)) { }
+    }
+
+    void stopInlineRendering() {
+        nextFrameAt = Long.MAX_VALUE;
+    }
+
+    private void frameDue(long c) {
+        long next = nextFrameAt;
+        // only the step winning the CAS renders; the others go on
+        if (c >= next && NEXT_FRAME_AT.compareAndSet(this, next, Long.MAX_VALUE))
+            NEXT_FRAME_AT.compareAndSet(this, Long.MAX_VALUE, inlineRenderer.applyAsLong(c));
+    }
+
+    private synchronized void raiseMax(long n) {
+        if (n > max) max = n;
+    }
+
+    StepHandle newHandle(Thread owner) {
+        StepHandle handle = new StepHandle(this, owner, handleFlushThreshold);
+        handles.add(handle);
+        return handle;
+    }
+
+    void removeHandle(StepHandle handle) {
+        handles.remove(handle);
+    }
+
+    /**
+     * Flushes the handles whose steps are older than the time bound, and the handles of dead threads.
+     * Called by the rendering thread.
+     */
+    void collectHandles() {
+        long now = ticker.read();
+        for (StepHandle h : handles) {
+            if (!h.getOwner().isAlive()) h.close();
+            else if (now - h.lastFlushNanos >= handleMaxDelayNanos) h.flush();
+        }
+    }
+
+    void flushHandles() {
+        for (StepHandle h : handles) h.flush();
     }
 
-    synchronized void stepTo(long n) {
-        current = n;
-        if (current > max) max = current;
+    // steps of the handles that are not flushed yet
+    private long pendingSteps() {
+        long n = 0;
+        for (StepHandle h : handles) n += h.getPending();
+        return n;
     }
 
     synchronized void setExtraMessage(String msg) {
@@ -66,7 +184,7 @@ class ProgressState {
 
     public synchronized long getCurrent() {
         if (supplier == null) {
-            return current;
+            return current + pendingSteps();
         } else {
             return supplier.get();
         }
@@ -1,19 +1,21 @@
 package me.tongfei.progressbar;
 
 import org.jline.terminal.Terminal;
-import org.jline.terminal.TerminalBuilder;
 
 import java.io.IOException;
 import java.io.PrintStream;
 import java.text.DecimalFormat;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Tongfei Chen
@@ -21,35 +23,67 @@ import java.util.concurrent.TimeUnit;
  */
 public class ProgressThread implements Runnable {
 
-    // see https://en.wikipedia.org/wiki/ANSI_escape_code#CSI_sequences
     public static final int DEFAULT_UPDATE_INTERVAL = 1000/2;
 
-    private static final String INITIALIZE_CSI = ((char) 0x1b) + "[";
-    private static final char MOVE_TO_COLUMN = 'G';
-    private static final char CLEAR_LINE = 'K';
-    private static final char MOVE_UP = 'A';
-
     private static final int MINIMAL_WIDTH = 10;
+    private static final int MINIMAL_BAR_LENGTH = 10;
     private int consoleWidth;
 
     private ProgressBarStyle style;
     private ProgressState progress;
     private long updateInterval;
     private PrintStream printStream;
-    private Terminal terminal;
+    private FrameWriter writer;
+    private TerminalBackend terminal;
     private String unitName;
     private long unitSize;
     private boolean isSpeedShown;
+    private ProgressBarLayout layout = ProgressBarLayout.DEFAULT;
+    private int bracketsWidth;
+    // per-frame buffers, reused across frames
+    private String[] segments = new String[layout.size()];
+    private int[] segmentWidths = new int[layout.size()];
 
     private final List<BitOfInformation> bitsOfInformation;
-
-    private int occupiedLines;
+    private final Map<ProgressLane, BitOfInformation> laneBits = new ConcurrentHashMap<>();
+    private final Queue<String> pendingLogLines = new ConcurrentLinkedQueue<>();
+    private TimelineRecorder recorder;
+    // bits of the current frame, if recorded
+    private final List<String> bitNames = new ArrayList<>();
+    private final List<String> bitValues = new ArrayList<>();
 
     private static int consoleRightMargin = 2;
     private static DecimalFormat speedFormat = new DecimalFormat("#.#");
 
+    // sequence number of the frame rendered by each thread, 0 outside of a frame
+    private static final AtomicLong frameSequence = new AtomicLong();
+    private static final ThreadLocal<long[]> renderingFrame = ThreadLocal.withInitial(() -> new long[1]);
+
     private int length;
-    private ScheduledExecutorService executorService;
+    private volatile ScheduledFuture<?> scheduledRefresh;
+    private boolean closed = false; // guarded by this
+
+    // inline rendering: frames are rendered by the stepping threads, every `stride` steps at most once per interval
+    private boolean inline = false;
+    private long stride = 1;
+    private long maxStride = Long.MAX_VALUE / 4;
+    private long nextFrameNanos = 0;
+
+    // refreshes of all progress bars (and the closing of the shared terminal) are scheduled on a single shared daemon thread,
+    // so that opening or closing a progress bar never starts or stops a thread
+    static class Scheduler {
+        static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, ProgressThread.class.getName());
+                t.setDaemon(true);
+                return t;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
 
     ProgressThread(ProgressState progress, ProgressBarStyle style, long updateInterval, PrintStream consoleStream, String unitName, long unitSize, boolean isSpeedShown) {
         this.progress = progress;
@@ -59,28 +93,70 @@ public class ProgressThread implements Runnable {
         this.unitName = unitName;
         this.unitSize = unitSize;
         this.isSpeedShown = isSpeedShown;
+        this.bracketsWidth = Util.displayWidth(style.leftBracket) + Util.displayWidth(style.rightBracket);
         this.bitsOfInformation = Collections.synchronizedList(new ArrayList<>());
-        try {
-            // Issue #42
-            // Defaulting to a dumb terminal when a supported terminal can not be correctly created
-            // see https://github.com/jline/jline3/issues/291
-            this.terminal = TerminalBuilder.builder().dumb(true).build();
-        } catch (IOException ignored) {
-
-        }
+        this.terminal = TerminalBackend.createDefault();
         // Workaround for issue #23 under IntelliJ
 //        if (terminal.getWidth() >= 10) {
 //            consoleWidth = terminal.getWidth();
 //        }
-        occupiedLines = 1 + bitsOfInformation.size();
+        this.writer = new FrameWriter(printStream, 1, progress.stats);
+    }
+
+    /**
+     * Renders the frames in the threads stepping the progress bar, instead of scheduling them.
+     */
+    void setInline() {
+        this.inline = true;
+    }
+
+    /**
+     * Writes the frames on a separate thread, dropping the frames that the print stream can not keep up with.
+     */
+    void setAsyncOutput() {
+        this.writer = new AsyncFrameWriter(printStream, 1, progress.stats);
+    }
+
+    /**
+     * Records the state of the progress bar and its bits of information at each frame.
+     */
+    void setRecorder(TimelineRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Returns the number of rendered frames that were dropped because the print stream was too slow.
+     */
+    long getDroppedFrames() {
+        return writer.getDroppedFrames();
+    }
+
+    /**
+     * Replaces the default layout. All the fields of a custom layout are shown, including the speed.
+     */
+    void setLayout(ProgressBarLayout layout) {
+        this.layout = layout;
+        this.segments = new String[layout.size()];
+        this.segmentWidths = new int[layout.size()];
+        this.isSpeedShown = true;
     }
 
     public PrintStream getPrintStream() {
         return printStream;
     }
 
+    /**
+     * Returns the JLine terminal used to determine the width of the console, or {@code null} if JLine is not used.
+     */
     public Terminal getTerminal() {
-        return terminal;
+        return terminal.getTerminal();
+    }
+
+    /**
+     * Replaces the default terminal backend, before the first frame.
+     */
+    void setTerminal(TerminalBackend terminal) {
+        this.terminal = terminal;
     }
 
     public void determineTerminalWidth() {
@@ -95,7 +171,8 @@ public class ProgressThread implements Runnable {
         if (progress.max <= 0) {
             return 0.0;
         }
-        return ((double) progress.getCurrent()) / progress.max;
+        // unflushed steps of handles may go beyond the maximum for a while
+        return Math.min(1.0, ((double) progress.getCurrent()) / progress.max);
     }
 
     // Number of full blocks
@@ -109,14 +186,15 @@ public class ProgressThread implements Runnable {
         return (int) Math.floor(fraction);
     }
 
-    private String estimateTimeRemaining(Duration elapsed) {
+    String estimateTimeRemaining(long elapsed) {
         if (progress.max <= 0 || progress.indefinite) {
             return "?";
         }
         if (progress.getCurrent() == 0) {
             return "?";
         }
-        return Util.formatDuration(elapsed.dividedBy(progress.getCurrent()).multipliedBy(progress.max - progress.getCurrent()));
+        long current = progress.getCurrent();
+        return Util.formatDuration((long) ((double) elapsed / current * (progress.max - current)));
     }
 
     private String getPercentageProgress() {
@@ -135,11 +213,15 @@ public class ProgressThread implements Runnable {
         return Util.repeat(' ', m.length() - c.length()) + c + "/" + m + unitName;
     }
 
-    private String getSpeed(Duration elapsed) {
-        if (elapsed.getSeconds() == 0) {
+    String getSpeed(long elapsed) {
+        return formatSpeed(progress.getCurrent(), elapsed);
+    }
+
+    private String formatSpeed(long count, long elapsed) {
+        if (elapsed < 1000000000L) {
             return "?" + unitName + "/s";
         }
-        double speed = (double) progress.getCurrent() / elapsed.getSeconds();
+        double speed = count * 1e9 / elapsed;
         double speedWithUnit = speed / unitSize;
         return speedFormat.format(speedWithUnit) + unitName + "/s";
     }
@@ -148,27 +230,114 @@ public class ProgressThread implements Runnable {
         bitsOfInformation.add(bitOfInformation);
     }
 
-    void refresh() {
-        clear();
-        determineTerminalWidth();
+    void addLane(ProgressLane lane) {
+        BitOfInformation bit = new BitOfInformation(lane.getName(), () -> renderLane(lane));
+        laneBits.put(lane, bit);
+        addBitOfInformation(bit);
+    }
 
-        Instant currTime = Instant.now();
-        Duration elapsed = Duration.between(progress.startTime, currTime);
+    /**
+     * Shows the rate of the last second (at least), against the limit, and the time the steps were parked.
+     */
+    void showRateLimit(RateLimiter limiter) {
+        long[] sample = { -1, 0 }; // time and progress at the start of the rate window
+        String[] liveRate = { "?" + unitName + "/s" };
+        addBitOfInformation(new BitOfInformation("limit", () -> {
+            long now = progress.ticker.read();
+            long current = progress.getCurrent();
+            if (sample[0] < 0 || now - sample[0] >= 1000000000L) {
+                if (sample[0] >= 0) liveRate[0] = formatSpeed(current - sample[1], now - sample[0]);
+                sample[0] = now;
+                sample[1] = current;
+            }
+            double rate = limiter.getRate();
+            String limit = rate > 0 ? speedFormat.format(rate / unitSize) + unitName + "/s" : "none";
+            return liveRate[0] + " of " + limit + ", throttled " + Util.formatDuration(limiter.getThrottledNanos());
+        }));
+    }
 
-        String prefix = progress.task + " " + getPercentageProgress() + " " + style.leftBracket;
+    void removeLane(ProgressLane lane) {
+        BitOfInformation bit = laneBits.remove(lane);
+        if (bit != null) bitsOfInformation.remove(bit);
+    }
 
-        int maxSuffixLength = Math.max(0, consoleWidth - consoleRightMargin - prefix.length() - 10);
-        String speedString = isSpeedShown ? getSpeed(elapsed) : "";
-        String suffix = style.rightBracket + " " + getRatioProgress()
-                + " (" + Util.formatDuration(elapsed) + " / " + estimateTimeRemaining(elapsed) + ") "
-                + speedString + progress.extraMessage;
-        if (suffix.length() > maxSuffixLength) suffix = suffix.substring(0, maxSuffixLength);
+    String renderLane(ProgressLane lane) {
+        String done;
+        if (lane.getMax() < 0) done = lane.getCurrent() / unitSize + unitName;
+        else if (lane.getMax() == 0) done = "?%";
+        else done = (int) Math.floor(100.0 * Math.min(lane.getCurrent(), lane.getMax()) / lane.getMax()) + "%";
+        String s = done + " " + formatSpeed(lane.getCurrent(), lane.activeNanos());
+        long remaining = lane.getRemaining();
+        if (remaining >= 0 && remaining != Long.MAX_VALUE) s += " (" + remaining / unitSize + unitName + " left)";
+        return s;
+    }
 
-        length = consoleWidth - consoleRightMargin - prefix.length() - suffix.length();
+    /**
+     * Queues a line to be printed above the progress bar with the next frame.
+     */
+    void log(String line) {
+        pendingLogLines.add(line);
+    }
+
+    private String renderField(ProgressBarLayout.Field field, long elapsed) {
+        switch (field) {
+            case TASK: return progress.task;
+            case PERCENT: return getPercentageProgress();
+            case RATIO: return getRatioProgress();
+            case ELAPSED: return Util.formatDuration(elapsed);
+            case ETA: return estimateTimeRemaining(elapsed);
+            case SPEED: return isSpeedShown ? getSpeed(elapsed) : "";
+            case MESSAGE: return progress.extraMessage;
+            default: return "";
+        }
+    }
+
+    /**
+     * Renders the progress bar line so that it takes exactly {@code width} columns
+     * (unless the segments before the bar do not fit).
+     */
+    String renderLine(long elapsed, int width) {
+        int n = layout.size();
+        int[] widths = segmentWidths;
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            ProgressBarLayout.Field field = layout.fields[i];
+            if (field == null) {
+                segments[i] = layout.literals[i];
+                widths[i] = layout.widths[i];
+            } else if (field == ProgressBarLayout.Field.BAR) {
+                widths[i] = bracketsWidth;
+            } else {
+                segments[i] = renderField(field, elapsed);
+                widths[i] = Util.displayWidth(segments[i]);
+            }
+            total += widths[i];
+        }
+
+        // trims the segments after the bar (or the whole line if there is no bar) from the end until it fits
+        int reserved = layout.barIndex == -1 ? 0 : MINIMAL_BAR_LENGTH;
+        int overflow = total + reserved - width;
+        for (int i = n - 1; i > layout.barIndex && overflow > 0; i--) {
+            int w = Math.max(0, widths[i] - overflow);
+            segments[i] = Util.truncateToWidth(segments[i], w);
+            overflow -= widths[i] - w;
+            total -= widths[i] - w;
+        }
 
         StringBuilder sb = new StringBuilder();
-        sb.append(prefix);
+        for (int i = 0; i < n; i++) {
+            if (i == layout.barIndex) {
+                length = Math.max(1, width - total);
+                sb.append(style.leftBracket);
+                appendBar(sb);
+                sb.append(style.rightBracket);
+            }
+            else sb.append(segments[i]);
+        }
+        return sb.toString();
+    }
 
+    private void appendBar(StringBuilder sb) {
         // case of indefinite progress bars
         if (progress.indefinite) {
             int pos = (int) (progress.getCurrent() % length);
@@ -184,75 +353,162 @@ public class ProgressThread implements Runnable {
                 sb.append(Util.repeat(style.space, length - getIntegralProgress() - 1));
             }
         }
+    }
 
-        sb.append(suffix);
-        String line = sb.toString();
-        printStream.println(line);
-        printBits();
+    synchronized void refresh() {
+        // a refresh that was already running when the progress bar got closed
+        if (!closed) render();
     }
 
-    private void printBits() {
-        int bitWidth = 0;
-        // +1 for progressbar, +1 for trailing println
-        occupiedLines = 2;
-        for (BitOfInformation bitOfInformation : bitsOfInformation) {
-            bitWidth += bitOfInformation.getLength();
-            if (bitWidth > consoleWidth) {
-                occupiedLines++;
-                printStream.println();
-                printStream.print(bitOfInformation.getBit());
-                bitWidth = 0;
-            } else {
-                printStream.print(bitOfInformation.getBit());
-                printStream.print(" ");
-                bitWidth++;
-            }
+    /**
+     * Marks the calling thread as rendering a new frame, until {@link #endFrame()}.
+     */
+    static void beginFrame() {
+        renderingFrame.get()[0] = frameSequence.incrementAndGet();
+    }
+
+    static void endFrame() {
+        renderingFrame.get()[0] = 0;
+    }
+
+    /**
+     * Returns the sequence number of the frame being rendered by the calling thread, or 0 if it is not rendering.
+     */
+    static long renderingFrame() {
+        return renderingFrame.get()[0];
+    }
+
+    private void render() {
+        beginFrame();
+        try {
+            renderFrame();
+        } finally {
+            endFrame();
         }
-        printStream.println();
     }
 
-    private void clear() {
-        for (int i = 0; i < occupiedLines; i++) {
-            // move cursor to first column
-            printStream.print(INITIALIZE_CSI + MOVE_TO_COLUMN);
-            // clear line from beginning to end
-            printStream.print(INITIALIZE_CSI + CLEAR_LINE);
-            // move one row up
-            printStream.print(INITIALIZE_CSI + MOVE_UP);
+    private void renderFrame() {
+        long renderStart = System.nanoTime();
+        progress.collectHandles();
+        determineTerminalWidth();
+
+        long elapsed = progress.elapsedNanos();
+        StringBuilder frame = new StringBuilder();
+        // all the lines logged since the last frame are printed above it, in the same write
+        String logLine;
+        while ((logLine = pendingLogLines.poll()) != null) {
+            // the previous frame may still be on that line
+            frame.append(FrameWriter.INITIALIZE_CSI).append(FrameWriter.CLEAR_LINE);
+            frame.append(logLine).append(System.lineSeparator());
         }
+        frame.append(renderLine(elapsed, consoleWidth - consoleRightMargin)).append(System.lineSeparator());
+        int lines = appendBits(frame);
+        writer.write(frame.toString(), lines);
+        progress.stats.recordFrame(System.nanoTime() - renderStart);
+        progress.stats.publishSteps();
+        record(elapsed);
     }
 
-    public void shutdownObservation() {
-        executorService.shutdown();
+    private void record(long elapsed) {
+        if (recorder == null) return;
         try {
-            if (!executorService.awaitTermination(updateInterval, TimeUnit.MILLISECONDS)) {
-                executorService.shutdownNow();
+            recorder.record(elapsed, progress.getCurrent(), progress.max, bitNames, bitValues);
+        } catch (IOException e) {
+            // stops recording, but not the progress bar
+            e.printStackTrace();
+            recorder = null;
+        }
+        bitNames.clear();
+        bitValues.clear();
+    }
+
+    // returns the number of lines occupied by the frame
+    private int appendBits(StringBuilder frame) {
+        String newLine = System.lineSeparator();
+        int bitWidth = 0;
+        // +1 for progressbar, +1 for trailing line break
+        int lines = 2;
+        synchronized (bitsOfInformation) {
+            for (BitOfInformation bitOfInformation : bitsOfInformation) {
+                String bit = bitOfInformation.getBit();
+                if (recorder != null) {
+                    String name = String.valueOf(bitOfInformation.getTooltip());
+                    bitNames.add(name);
+                    bitValues.add(bit.startsWith(name + ": ") ? bit.substring(name.length() + 2) : bit);
+                }
+                int width = Util.displayWidth(bit);
+                if (bitWidth > 0 && bitWidth + width > consoleWidth) {
+                    lines++;
+                    frame.append(newLine);
+                    bitWidth = 0;
+                }
+                frame.append(bit).append(' ');
+                bitWidth += width + 1;
             }
-            // if current state did not hit the maximal value in last refresh but finished anyway
-            if (progress.isFinished()) {
-                refresh();
+        }
+        frame.append(newLine);
+        return lines;
+    }
+
+    /**
+     * Stops the scheduled refreshes and renders the final frame in-line if needed.
+     * Does not wait for the next scheduled refresh: at most for a refresh that is running.
+     */
+    public void shutdownObservation() {
+        if (scheduledRefresh != null) scheduledRefresh.cancel(false);
+        synchronized (this) {
+            closed = true;
+            progress.stopInlineRendering();
+            // if current state did not hit the maximal value in last refresh but finished anyway,
+            // or if some lines were logged since then, or if there is no thread rendering the frames
+            if (inline || progress.isFinished() || !pendingLogLines.isEmpty()) {
+                render();
             }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            // the final state is always recorded
+            else record(progress.elapsedNanos());
+            progress.stats.publishSteps();
         }
     }
 
     public void shutdownTerminal() {
-        // clean exit: finish last line and flush print stream
-        printStream.print(INITIALIZE_CSI + MOVE_UP);
-        printStream.println();
-        printStream.flush();
-        try {
-            terminal.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+        writer.close();
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
+        terminal.close();
+    }
+
+    // called by the step reaching the threshold, returns the next threshold
+    private long inlineRefresh(long current) {
+        long now = progress.ticker.read();
+        long intervalNanos = updateInterval * 1000000L;
+        if (now < nextFrameNanos) {
+            // too early: checks the time less often
+            stride = Math.min(maxStride, stride * 2);
+        } else {
+            // late by more than an interval: checks the time more often
+            if (now - nextFrameNanos > intervalNanos) stride = Math.max(1, stride / 2);
+            refresh();
+            nextFrameNanos = now + intervalNanos;
+        }
+        return current + stride;
     }
 
     @Override
     public void run() {
         System.out.println();
-        executorService = Executors.newSingleThreadScheduledExecutor();
-        executorService.scheduleAtFixedRate(this::refresh, 0, updateInterval, TimeUnit.MILLISECONDS);
+        if (inline) {
+            // at least a frame per percent for definite progress bars
+            maxStride = progress.max > 0 && !progress.indefinite ? Math.max(1, progress.max / 100) : maxStride;
+            stride = maxStride == Long.MAX_VALUE / 4 ? 1 : maxStride;
+            nextFrameNanos = progress.ticker.read() + updateInterval * 1000000L;
+            refresh();
+            progress.startInlineRendering(this::inlineRefresh, progress.getCurrent() + stride);
+        }
+        else scheduledRefresh = Scheduler.INSTANCE.scheduleAtFixedRate(this::refresh, 0, updateInterval, TimeUnit.MILLISECONDS);
     }
 }
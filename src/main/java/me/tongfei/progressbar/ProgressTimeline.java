@@ -0,0 +1,239 @@
+package me.tongfei.progressbar;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A timeline of a progress bar, recorded with {@link ProgressBarBuilder#setTimelineFile(Path)}:
+ * the state of the progress bar and the values of its bits of information at each frame.
+ * <p>
+ * Timelines can be converted to CSV from the command line:
+ * {@code java -cp progressbar.jar me.tongfei.progressbar.ProgressTimeline job.pbtl > job.csv}
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressTimeline {
+
+    /**
+     * The state of a progress bar at one frame.
+     */
+    public static class Sample {
+
+        private final long elapsedMicros;
+        private final long current;
+        private final long max;
+        private final String[] bits;
+
+        Sample(long elapsedMicros, long current, long max, String[] bits) {
+            this.elapsedMicros = elapsedMicros;
+            this.current = current;
+            this.max = max;
+            this.bits = bits;
+        }
+
+        /**
+         * Returns the time elapsed since the start of the progress bar, in microseconds.
+         */
+        public long getElapsedMicros() {
+            return elapsedMicros;
+        }
+
+        public long getCurrent() {
+            return current;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the value of a bit of information, or {@code null} if it was not shown yet.
+         *
+         * @param index Index of the bit, in {@link #getBitNames()}
+         */
+        public String getBit(int index) {
+            return index < bits.length ? bits[index] : null;
+        }
+
+    }
+
+    private final String task;
+    private final long startEpochMillis;
+    private final List<String> bitNames;
+    private final List<Sample> samples;
+
+    private ProgressTimeline(String task, long startEpochMillis, List<String> bitNames, List<Sample> samples) {
+        this.task = task;
+        this.startEpochMillis = startEpochMillis;
+        this.bitNames = Collections.unmodifiableList(bitNames);
+        this.samples = Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * Reads a timeline. A timeline whose last record was not completely written (e.g. the JVM died)
+     * is read up to its last complete record.
+     */
+    public static ProgressTimeline read(Path path) throws IOException {
+        try (InputStream is = Files.newInputStream(path)) {
+            return read(is);
+        }
+    }
+
+    public static ProgressTimeline read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != TimelineRecorder.MAGIC)
+            throw new IOException("Not a progress bar timeline");
+        int version = in.readByte();
+        if (version != TimelineRecorder.VERSION)
+            throw new IOException("Unsupported progress bar timeline version " + version);
+        long start = readLong(in);
+        String task = readString(in);
+
+        List<String> names = new ArrayList<>();
+        List<Sample> samples = new ArrayList<>();
+        String[] bits = new String[0];
+        long micros = 0, current = 0, max = 0;
+        try {
+            while (true) {
+                int tag = in.read();
+                if (tag == -1) break;
+                if (tag == TimelineRecorder.BIT_NAME) {
+                    int index = (int) readLong(in);
+                    String name = readString(in);
+                    while (names.size() <= index) names.add(null);
+                    names.set(index, name);
+                    // the previous samples keep their values
+                    bits = Arrays.copyOf(bits, Math.max(bits.length, index + 1));
+                    bits[index] = null;
+                } else if (tag == TimelineRecorder.SAMPLE) {
+                    long m = micros + readLong(in);
+                    long c = current + readLong(in);
+                    long x = max + readLong(in);
+                    String[] b = bits.clone();
+                    for (long k = readLong(in); k > 0; k--) {
+                        int index = (int) readLong(in);
+                        b[index] = readString(in);
+                    }
+                    micros = m;
+                    current = c;
+                    max = x;
+                    bits = b;
+                    samples.add(new Sample(micros, current, max, bits));
+                } else {
+                    throw new IOException("Corrupted progress bar timeline: unknown record " + tag);
+                }
+            }
+        } catch (EOFException ignored) {
+            // last record truncated
+        }
+        return new ProgressTimeline(task, start, names, samples);
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the time at which the recording started, in milliseconds since the epoch.
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * Returns the names of the bits of information recorded, by index.
+     */
+    public List<String> getBitNames() {
+        return bitNames;
+    }
+
+    public List<Sample> getSamples() {
+        return samples;
+    }
+
+    /**
+     * Returns the rate of progress between each sample and the previous one, in units per second
+     * (the first sample is compared to the start of the progress bar).
+     */
+    public double[] getRates() {
+        double[] rates = new double[samples.size()];
+        long micros = 0, current = 0;
+        for (int i = 0; i < rates.length; i++) {
+            Sample s = samples.get(i);
+            long dt = s.elapsedMicros - micros;
+            rates[i] = dt <= 0 ? 0 : (s.current - current) * 1e6 / dt;
+            micros = s.elapsedMicros;
+            current = s.current;
+        }
+        return rates;
+    }
+
+    /**
+     * Writes this timeline as CSV: elapsed seconds, current value, maximum, rate per second, then one column per bit.
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("elapsed,current,max,rate");
+        for (String name : bitNames) out.append(',').append(csv(name));
+        out.append('\n');
+        double[] rates = getRates();
+        for (int i = 0; i < samples.size(); i++) {
+            Sample s = samples.get(i);
+            out.append(String.format("%.3f", s.elapsedMicros / 1e6)).append(',')
+                    .append(String.valueOf(s.current)).append(',')
+                    .append(String.valueOf(s.max)).append(',')
+                    .append(String.format("%.1f", rates[i]));
+            for (int b = 0; b < bitNames.size(); b++) out.append(',').append(csv(s.getBit(b)));
+            out.append('\n');
+        }
+    }
+
+    private static String csv(String s) {
+        if (s == null) return "";
+        if (s.indexOf(',') == -1 && s.indexOf('"') == -1 && s.indexOf('\n') == -1) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    private static long readLong(DataInputStream in) throws IOException {
+        long z = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            z |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+        }
+        return (z >>> 1) ^ -(z & 1);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converts a timeline file to CSV on the standard output.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java " + ProgressTimeline.class.getName() + " <timeline file>");
+            System.exit(1);
+        }
+        Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        read(Paths.get(args[0])).writeCsv(out);
+        out.flush();
+    }
+
+}
@@ -0,0 +1,118 @@
+package me.tongfei.progressbar;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A headless progress tracker: it tracks progress like a {@link ProgressBar},
+ * but owns no thread, no terminal and no output stream.
+ * <p>
+ * A tracker only holds its task name, its current and maximum values and its start time (its time is measured
+ * by the ticker of its registry), which makes it cheap enough to have thousands of them alive at the same time,
+ * e.g. one per request in a server. Their state is observed through a {@link ProgressTrackerRegistry}.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressTracker implements AutoCloseable {
+
+    private static final AtomicLongFieldUpdater<ProgressTracker> CURRENT =
+            AtomicLongFieldUpdater.newUpdater(ProgressTracker.class, "current");
+    private static final AtomicLongFieldUpdater<ProgressTracker> MAX =
+            AtomicLongFieldUpdater.newUpdater(ProgressTracker.class, "max");
+
+    private final String task;
+    private final ProgressTrackerRegistry registry;
+    final long id;
+    private final long startNanos;
+    private volatile long current = 0;
+    private volatile long max; // -1 if indefinite
+
+    ProgressTracker(String task, long initialMax, ProgressTrackerRegistry registry, long id) {
+        this.task = task;
+        this.max = initialMax < 0 ? -1 : initialMax;
+        this.registry = registry;
+        this.id = id;
+        this.startNanos = registry.ticker.read();
+    }
+
+    /**
+     * Advances this tracker by a specific amount.
+     *
+     * @param n Step size
+     */
+    public ProgressTracker stepBy(long n) {
+        raiseMax(CURRENT.addAndGet(this, n));
+        return this;
+    }
+
+    /**
+     * Advances this tracker to the specific progress value.
+     *
+     * @param n New progress value
+     */
+    public ProgressTracker stepTo(long n) {
+        current = n;
+        raiseMax(n);
+        return this;
+    }
+
+    /**
+     * Advances this tracker by one step.
+     */
+    public ProgressTracker step() {
+        return stepBy(1);
+    }
+
+    // as for progress bars, a definite maximum is raised to the progress that goes beyond it
+    private void raiseMax(long n) {
+        long m;
+        while (n > (m = max) && m >= 0 && !MAX.compareAndSet(this, m, n)) { }
+    }
+
+    /**
+     * Gives a hint to the maximum value of the tracker.
+     *
+     * @param n Hint of the maximum value, negative for indefinite
+     */
+    public ProgressTracker maxHint(long n) {
+        max = n < 0 ? -1 : n;
+        return this;
+    }
+
+    /**
+     * Returns the current progress.
+     */
+    public long getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the maximum value of this tracker, or -1 if it is indefinite.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the name of this task.
+     */
+    public String getTask() {
+        return task;
+    }
+
+    /**
+     * Returns an immutable view of the current state of this tracker.
+     */
+    public ProgressSnapshot snapshot() {
+        return new ProgressSnapshot(task, current, max, registry.ticker.read() - startNanos);
+    }
+
+    /**
+     * Stops tracking, removing this tracker from its registry.
+     */
+    @Override
+    public void close() {
+        registry.remove(this);
+    }
+
+}
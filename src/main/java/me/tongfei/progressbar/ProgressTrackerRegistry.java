@@ -0,0 +1,164 @@
+package me.tongfei.progressbar;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A registry of headless {@link ProgressTracker}s.
+ * <p>
+ * Trackers are only weakly referenced: a tracker that is no longer used is dropped from the registry
+ * once it is garbage collected, even if it was never closed. Trackers whose progress did not change
+ * for longer than the idle timeout are evicted as well.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressTrackerRegistry {
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<ProgressTracker> collected = new ReferenceQueue<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final long idleTimeoutNanos;
+    final Ticker ticker;
+
+    private static class Entry extends WeakReference<ProgressTracker> {
+        final long id;
+        // last observed progress and when it last changed, only touched by sweep()
+        long lastSeenCurrent = 0;
+        long lastActiveNanos;
+
+        Entry(ProgressTracker tracker, ReferenceQueue<ProgressTracker> queue, long now) {
+            super(tracker, queue);
+            this.id = tracker.id;
+            this.lastActiveNanos = now;
+        }
+    }
+
+    /**
+     * Creates a registry whose trackers are never evicted for being idle.
+     */
+    public ProgressTrackerRegistry() {
+        this(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a registry that evicts trackers whose progress did not change for the given duration.
+     *
+     * @param idleTimeout Idle timeout
+     * @param unit        Unit of the idle timeout
+     */
+    public ProgressTrackerRegistry(long idleTimeout, TimeUnit unit) {
+        this(idleTimeout, unit, Ticker.SYSTEM);
+    }
+
+    /**
+     * Creates a registry that evicts trackers whose progress did not change for the given duration,
+     * with all timing measured by the given ticker.
+     *
+     * @param idleTimeout Idle timeout
+     * @param unit        Unit of the idle timeout
+     * @param ticker      Source of time
+     */
+    public ProgressTrackerRegistry(long idleTimeout, TimeUnit unit, Ticker ticker) {
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.ticker = ticker;
+    }
+
+    /**
+     * Creates a tracker with the specific task name and initial maximum value, registered in this registry.
+     *
+     * @param task       Task name
+     * @param initialMax Initial maximum value (-1 for indefinite)
+     */
+    public ProgressTracker track(String task, long initialMax) {
+        ProgressTracker tracker = new ProgressTracker(task, initialMax, this, nextId.getAndIncrement());
+        entries.put(tracker.id, new Entry(tracker, collected, ticker.read()));
+        return tracker;
+    }
+
+    void remove(ProgressTracker tracker) {
+        entries.remove(tracker.id);
+    }
+
+    /**
+     * Returns the number of trackers currently registered.
+     */
+    public int size() {
+        sweep();
+        return entries.size();
+    }
+
+    /**
+     * Returns the snapshots of all live trackers.
+     */
+    public List<ProgressSnapshot> snapshots() {
+        List<ProgressTracker> trackers = sweep();
+        List<ProgressSnapshot> snapshots = new ArrayList<>(trackers.size());
+        for (ProgressTracker tracker : trackers)
+            snapshots.add(tracker.snapshot());
+        return snapshots;
+    }
+
+    /**
+     * Returns the snapshots of the {@code n} trackers with the lowest throughput, slowest first.
+     *
+     * @param n Number of trackers to return
+     */
+    public List<ProgressSnapshot> slowest(int n) {
+        List<ProgressSnapshot> snapshots = snapshots();
+        snapshots.sort(Comparator.comparingDouble(ProgressSnapshot::getRate));
+        return snapshots.size() > n ? new ArrayList<>(snapshots.subList(0, n)) : snapshots;
+    }
+
+    /**
+     * Returns the sum of the throughputs of all live trackers, in units per second.
+     */
+    public double aggregateRate() {
+        double rate = 0.0;
+        for (ProgressSnapshot snapshot : snapshots())
+            rate += snapshot.getRate();
+        return rate;
+    }
+
+    /**
+     * Drops the trackers that were garbage collected or have been idle for too long,
+     * and returns the remaining ones.
+     */
+    synchronized List<ProgressTracker> sweep() {
+        Reference<? extends ProgressTracker> ref;
+        while ((ref = collected.poll()) != null)
+            entries.remove(((Entry) ref).id, ref);
+
+        long now = ticker.read();
+        List<ProgressTracker> live = new ArrayList<>(entries.size());
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            Entry e = it.next();
+            ProgressTracker tracker = e.get();
+            if (tracker == null) {
+                it.remove();
+                continue;
+            }
+            long current = tracker.getCurrent();
+            if (current != e.lastSeenCurrent) {
+                e.lastSeenCurrent = current;
+                e.lastActiveNanos = now;
+            }
+            else if (now - e.lastActiveNanos > idleTimeoutNanos) {
+                it.remove();
+                continue;
+            }
+            live.add(tracker);
+        }
+        return live;
+    }
+
+}
@@ -0,0 +1,141 @@
+package me.tongfei.progressbar;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the rate of the steps of a progress bar (e.g. bytes read per second) with a token bucket:
+ * a step takes as many tokens as its size, and the tokens are refilled at the target rate, up to a small burst.
+ * A step larger than the available tokens goes into debt; the stepping thread is parked until the debt is paid,
+ * so the rate holds whatever the step sizes. Concurrent steps wait in the order they were made.
+ * <p>
+ * The rate can be changed at any time, also while threads are waiting: they wait at most
+ * {@link #MAX_PARK_MILLIS} before taking the new rate into account. A rate of 0 or less removes the limit.
+ * </p>
+ * <p>
+ * The tokens are refilled according to a {@link Ticker} (the ticker of the progress bar for
+ * {@link ProgressBar#setRateLimit(double)}); waiting steps are parked in real time, at most
+ * {@link #MAX_PARK_MILLIS} at a time, so with a manual ticker they proceed once the ticker has advanced.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class RateLimiter {
+
+    /** Longest time a waiting step is parked before checking the rate again. */
+    public static final long MAX_PARK_MILLIS = 50;
+    /** Default size of the bucket, in seconds at the target rate. */
+    public static final double DEFAULT_BURST_SECONDS = 0.1;
+
+    private final double burstSeconds;
+    private final Ticker ticker;
+    private final LongAdder throttledNanos = new LongAdder();
+    private double rate;
+    private double tokens = 0;
+    private double refilled = 0; // all the tokens added so far: a waiting step waits until it reaches its target
+    private long refilledAt;
+
+    /**
+     * @param unitsPerSecond Target rate, in units of progress per second; no limit if 0 or less
+     */
+    public RateLimiter(double unitsPerSecond) {
+        this(unitsPerSecond, DEFAULT_BURST_SECONDS);
+    }
+
+    /**
+     * @param unitsPerSecond Target rate, in units of progress per second; no limit if 0 or less
+     * @param burstSeconds   Size of the bucket, in seconds at the target rate: how much a step may exceed the rate after a pause
+     */
+    public RateLimiter(double unitsPerSecond, double burstSeconds) {
+        this(unitsPerSecond, burstSeconds, Ticker.SYSTEM);
+    }
+
+    /**
+     * @param unitsPerSecond Target rate, in units of progress per second; no limit if 0 or less
+     * @param burstSeconds   Size of the bucket, in seconds at the target rate: how much a step may exceed the rate after a pause
+     * @param ticker         Source of time
+     */
+    public RateLimiter(double unitsPerSecond, double burstSeconds, Ticker ticker) {
+        if (burstSeconds < 0) throw new IllegalArgumentException("Burst must not be negative: " + burstSeconds);
+        this.rate = unitsPerSecond;
+        this.burstSeconds = burstSeconds;
+        this.ticker = ticker;
+        this.refilledAt = ticker.read();
+    }
+
+    private double capacity() {
+        return Math.max(1, rate * burstSeconds);
+    }
+
+    private void refill(long now) {
+        if (rate > 0) {
+            double added = Math.min(capacity() - tokens, (now - refilledAt) * rate / 1e9);
+            if (added > 0) {
+                tokens += added;
+                refilled += added;
+            }
+        }
+        refilledAt = now;
+    }
+
+    /**
+     * Changes the target rate. Steps already waiting take it into account.
+     *
+     * @param unitsPerSecond Target rate, in units of progress per second; no limit if 0 or less
+     */
+    public synchronized void setRate(double unitsPerSecond) {
+        refill(ticker.read());
+        rate = unitsPerSecond;
+        if (rate > 0) tokens = Math.min(tokens, capacity());
+        else tokens = 0; // debts are forgiven
+    }
+
+    /**
+     * Returns the target rate, in units of progress per second, or 0 or less if there is no limit.
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * Returns the total time the steps were parked to hold the rate, in nanoseconds.
+     */
+    public long getThrottledNanos() {
+        return throttledNanos.sum();
+    }
+
+    /**
+     * Takes {@code n} tokens, parking the calling thread as long as needed to hold the rate.
+     * Returns early, keeping the interrupt status, if the thread is interrupted.
+     *
+     * @param n Size of the step
+     * @return Time parked, in nanoseconds
+     */
+    public long acquire(long n) {
+        if (n <= 0) return 0;
+        long start = ticker.read();
+        double target;
+        synchronized (this) {
+            if (!(rate > 0)) return 0;
+            refill(start);
+            tokens -= n;
+            if (tokens >= 0) return 0;
+            target = refilled - tokens;
+        }
+        while (true) {
+            long wait;
+            synchronized (this) {
+                refill(ticker.read());
+                if (!(rate > 0) || refilled >= target) break;
+                wait = (long) Math.ceil((target - refilled) / rate * 1e9);
+            }
+            LockSupport.parkNanos(this, Math.min(wait, TimeUnit.MILLISECONDS.toNanos(MAX_PARK_MILLIS)));
+            if (Thread.currentThread().isInterrupted()) break;
+        }
+        long parked = ticker.read() - start;
+        throttledNanos.add(parked);
+        return parked;
+    }
+
+}
@@ -0,0 +1,128 @@
+package me.tongfei.progressbar;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bits of information about the JVM running the progress bar: heap, garbage collections, CPU load and threads.
+ * <p>
+ * These bits are sampled from the management beans when a frame is rendered, on the thread rendering the progress bar,
+ * so they cost nothing to the threads doing the work. A bit is sampled at most once per frame: a sample is reused
+ * if the bit is requested again while the same frame is rendered. Outside of a frame, each request takes a sample.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class RuntimeBits {
+
+    private RuntimeBits() { }
+
+    /**
+     * Returns all the runtime bits: heap, garbage collections, CPU load and threads.
+     */
+    public static List<BitOfInformation> all() {
+        return Arrays.asList(heap(), gc(), cpu(), threads());
+    }
+
+    /**
+     * Used and maximal heap, e.g. {@code heap: 412.3MB/4.0GB}.
+     */
+    public static BitOfInformation heap() {
+        return new BitOfInformation("heap", sampled(() -> {
+            MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+            String max = heap.getMax() < 0 ? "?" : formatBytes(heap.getMax());
+            return formatBytes(heap.getUsed()) + "/" + max;
+        }));
+    }
+
+    /**
+     * Number of garbage collections, and the collections and their time since the previous frame,
+     * e.g. {@code gc: 37 (+2, 18ms)}.
+     */
+    public static BitOfInformation gc() {
+        return new BitOfInformation("gc", sampled(new Supplier<String>() {
+            private long lastCount = -1;
+            private long lastTime = 0;
+
+            @Override
+            public String get() {
+                long count = 0;
+                long time = 0;
+                for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                    count += Math.max(0, gc.getCollectionCount());
+                    time += Math.max(0, gc.getCollectionTime());
+                }
+                String delta = lastCount < 0 ? "" : " (+" + (count - lastCount) + ", " + (time - lastTime) + "ms)";
+                lastCount = count;
+                lastTime = time;
+                return count + delta;
+            }
+        }));
+    }
+
+    /**
+     * CPU load of the JVM process if the platform reports it, otherwise the system load average,
+     * e.g. {@code cpu: 87%} or {@code load: 3.2}.
+     */
+    public static BitOfInformation cpu() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        try {
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                com.sun.management.OperatingSystemMXBean sunOs = (com.sun.management.OperatingSystemMXBean) os;
+                return new BitOfInformation("cpu", sampled(() -> {
+                    double load = sunOs.getProcessCpuLoad();
+                    return load < 0 ? "?" : Math.round(load * 100) + "%";
+                }));
+            }
+        } catch (LinkageError ignored) {
+            // not a HotSpot-based JVM
+        }
+        return new BitOfInformation("load", sampled(() -> {
+            double load = os.getSystemLoadAverage();
+            return load < 0 ? "?" : String.format("%.1f", load);
+        }));
+    }
+
+    /**
+     * Number of live threads, e.g. {@code threads: 24}.
+     */
+    public static BitOfInformation threads() {
+        return new BitOfInformation("threads", sampled(() ->
+                String.valueOf(ManagementFactory.getThreadMXBean().getThreadCount())));
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + "B";
+        String units = "KMGTPE";
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length() - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f%cB", value, units.charAt(unit));
+    }
+
+    private static Supplier<String> sampled(Supplier<String> sampler) {
+        return new Supplier<String>() {
+            private String sample;
+            private long sampleFrame;
+
+            @Override
+            public synchronized String get() {
+                long frame = ProgressThread.renderingFrame();
+                if (sample == null || frame == 0 || frame != sampleFrame) {
+                    sample = sampler.get();
+                    sampleFrame = frame;
+                }
+                return sample;
+            }
+        };
+    }
+
+}
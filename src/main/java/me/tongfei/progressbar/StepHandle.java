@@ -0,0 +1,112 @@
+package me.tongfei.progressbar;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A counter of steps owned by one thread, obtained from {@link ProgressBar#handle()}, that accumulates steps locally
+ * and adds them to its progress bar in batches.
+ * <p>
+ * Stepping a handle only writes a field that no other thread writes: there is no synchronization on the hot path.
+ * The steps are added to the progress bar (flushed) when their number reaches a threshold, when the handle
+ * is closed, and by the rendering thread when they are older than a time bound or when the owning thread is dead
+ * (see {@link ProgressBarBuilder#setStepHandleFlush(long, long)}).
+ * Steps not flushed yet are still counted in the current value of the progress bar.
+ * </p>
+ * <p>
+ * If the rate of the progress bar is limited, the owning thread takes the tokens of its steps whenever it has made
+ * {@code threshold} of them, whoever flushes them: it is parked there as long as needed to hold the rate.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class StepHandle implements AutoCloseable {
+
+    private static final AtomicLongFieldUpdater<StepHandle> COUNT =
+            AtomicLongFieldUpdater.newUpdater(StepHandle.class, "count");
+    private static final AtomicLongFieldUpdater<StepHandle> PUBLISHED =
+            AtomicLongFieldUpdater.newUpdater(StepHandle.class, "published");
+
+    private final ProgressState progress;
+    private final Thread owner;
+    private final long threshold;
+    // all the steps of this handle, only written by the owner
+    private volatile long count = 0;
+    // steps already added to the progress, advanced by whoever flushes
+    private volatile long published = 0;
+    // steps already taken from the rate limiter (and flushed by the owner), only touched by the owner
+    private long limited = 0;
+    volatile long lastFlushNanos;
+    private volatile boolean closed = false;
+
+    StepHandle(ProgressState progress, Thread owner, long threshold) {
+        this.progress = progress;
+        this.owner = owner;
+        this.threshold = threshold;
+        this.lastFlushNanos = progress.ticker.read();
+    }
+
+    /**
+     * Advances the progress bar by a specific amount. Must be called by the thread owning this handle.
+     */
+    public StepHandle stepBy(long n) {
+        long c = count + n;
+        COUNT.lazySet(this, c);
+        if (Math.abs(c - limited) >= threshold) {
+            RateLimiter limiter = progress.rateLimiter;
+            if (limiter != null) limiter.acquire(c - limited);
+            limited = c;
+            flush();
+        }
+        return this;
+    }
+
+    /**
+     * Advances the progress bar by one step. Must be called by the thread owning this handle.
+     */
+    public StepHandle step() {
+        return stepBy(1);
+    }
+
+    /**
+     * Adds the pending steps of this handle to the progress bar. May be called by any thread.
+     */
+    public void flush() {
+        while (true) {
+            long p = published;
+            long c = count;
+            if (c == p) return;
+            if (PUBLISHED.compareAndSet(this, p, c)) {
+                progress.stepBy(c - p);
+                lastFlushNanos = progress.ticker.read();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of steps not added to the progress bar yet.
+     */
+    public long getPending() {
+        return count - published;
+    }
+
+    public Thread getOwner() {
+        return owner;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Flushes this handle and detaches it from the progress bar.
+     * The next call to {@link ProgressBar#handle()} from the owning thread returns a new handle.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+        progress.removeHandle(this);
+    }
+
+}
@@ -0,0 +1,37 @@
+package me.tongfei.progressbar;
+
+import org.jline.terminal.Terminal;
+
+/**
+ * Where the width of the console is taken from.
+ * <p>
+ * By default, the width is read from a JLine terminal, which probes the system on its creation.
+ * In a GraalVM native image, or if the system property {@value #PROPERTY} is {@code ansi},
+ * a plain ANSI backend is used instead: its width is given by the {@code COLUMNS} environment variable
+ * (80 if not set), and nothing is probed or looked up reflectively.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+interface TerminalBackend {
+
+    String PROPERTY = "me.tongfei.progressbar.terminal";
+
+    int getWidth();
+
+    /**
+     * Returns the underlying JLine terminal, or {@code null} if there is none.
+     */
+    Terminal getTerminal();
+
+    void close();
+
+    static TerminalBackend createDefault() {
+        String choice = System.getProperty(PROPERTY);
+        boolean nativeImage = System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+        if ("ansi".equals(choice) || (nativeImage && !"jline".equals(choice)))
+            return new AnsiTerminalBackend(AnsiTerminalBackend.columnsFromEnvironment());
+        return new JLineTerminalBackend();
+    }
+
+}
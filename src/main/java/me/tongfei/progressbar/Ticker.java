@@ -0,0 +1,21 @@
+package me.tongfei.progressbar;
+
+/**
+ * A source of monotonic time, used for all the timing of progress bars (elapsed time, speed, ETA).
+ * Unlike the wall clock, it is not affected by clock adjustments. It can be replaced,
+ * e.g. in tests or benchmarks, to make timing deterministic.
+ * @author cl
+ * @since 0.7.3
+ */
+@FunctionalInterface
+public interface Ticker {
+
+    /** The default ticker, backed by {@link System#nanoTime()}. */
+    Ticker SYSTEM = System::nanoTime;
+
+    /**
+     * Returns the current time in nanoseconds, relative to an arbitrary fixed origin.
+     */
+    long read();
+
+}
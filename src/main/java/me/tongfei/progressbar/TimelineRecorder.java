@@ -0,0 +1,157 @@
+package me.tongfei.progressbar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Appends a sample of the state of a progress bar to a file at each frame, in a compact binary format
+ * read by {@link ProgressTimeline}.
+ * <p>
+ * The file starts with a header: the magic number {@code PBTL}, a version byte, the start time in milliseconds
+ * since the epoch and the task name. It is followed by records, each starting with a tag byte:
+ * </p>
+ * <ul>
+ *     <li>{@code 1} (bit name): index, name &mdash; defines the name of a bit of information;</li>
+ *     <li>{@code 0} (sample): elapsed time in microseconds, current value and maximum, as differences from
+ *     the previous sample; then the number of bits whose value changed, each as index and value.</li>
+ * </ul>
+ * <p>
+ * Integers are zigzag-encoded variable-length integers, strings are a length followed by UTF-8 bytes.
+ * A sample without changes in the bits typically takes less than 10 bytes.
+ * Records are buffered, and written at least every second so that little is lost if the JVM dies.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+class TimelineRecorder implements AutoCloseable {
+
+    static final int MAGIC = 0x5042544c; // PBTL
+    static final byte VERSION = 1;
+    static final byte SAMPLE = 0;
+    static final byte BIT_NAME = 1;
+
+    private static final long FLUSH_INTERVAL_NANOS = 1000000000L;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 13);
+    private byte[] record = new byte[256];
+    private int recordLength = 0;
+    private long lastFlushNanos = System.nanoTime();
+
+    private long lastMicros = 0;
+    private long lastCurrent = 0;
+    private long lastMax = 0;
+    private final List<String> names = new ArrayList<>();
+    private final List<String> values = new ArrayList<>();
+
+    TimelineRecorder(Path path, String task, long startEpochMillis) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        putLong(startEpochMillis);
+        putString(task);
+        append();
+    }
+
+    /**
+     * Records a sample.
+     *
+     * @param bitNames  Names of the bits of information of the frame, or empty
+     * @param bitValues Values of these bits
+     */
+    synchronized void record(long elapsedNanos, long current, long max, List<String> bitNames, List<String> bitValues) throws IOException {
+        for (int i = 0; i < bitNames.size(); i++) {
+            if (i == names.size()) {
+                names.add(null);
+                values.add(null);
+            }
+            if (!bitNames.get(i).equals(names.get(i))) {
+                names.set(i, bitNames.get(i));
+                values.set(i, null);
+                putByte(BIT_NAME);
+                putLong(i);
+                putString(bitNames.get(i));
+                append();
+            }
+        }
+
+        long micros = elapsedNanos / 1000;
+        putByte(SAMPLE);
+        putLong(micros - lastMicros);
+        putLong(current - lastCurrent);
+        putLong(max - lastMax);
+        lastMicros = micros;
+        lastCurrent = current;
+        lastMax = max;
+
+        int changed = 0;
+        for (int i = 0; i < bitValues.size(); i++)
+            if (!bitValues.get(i).equals(values.get(i))) changed++;
+        putLong(changed);
+        for (int i = 0; i < bitValues.size(); i++) {
+            if (!bitValues.get(i).equals(values.get(i))) {
+                values.set(i, bitValues.get(i));
+                putLong(i);
+                putString(bitValues.get(i));
+            }
+        }
+        append();
+
+        if (System.nanoTime() - lastFlushNanos >= FLUSH_INTERVAL_NANOS) flush();
+    }
+
+    // moves the current record into the buffer
+    private void append() throws IOException {
+        if (recordLength > buffer.remaining()) flush();
+        if (recordLength > buffer.remaining()) writeFully(ByteBuffer.wrap(record, 0, recordLength));
+        else buffer.put(record, 0, recordLength);
+        recordLength = 0;
+    }
+
+    synchronized void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+        lastFlushNanos = System.nanoTime();
+    }
+
+    private void writeFully(ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) channel.write(b);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) return;
+        flush();
+        channel.close();
+    }
+
+    private void putByte(int b) {
+        if (recordLength == record.length) record = Arrays.copyOf(record, record.length * 2);
+        record[recordLength++] = (byte) b;
+    }
+
+    private void putLong(long v) {
+        long z = (v << 1) ^ (v >> 63);
+        while ((z & ~0x7FL) != 0) {
+            putByte((int) ((z & 0x7F) | 0x80));
+            z >>>= 7;
+        }
+        putByte((int) z);
+    }
+
+    private void putString(String s) {
+        byte[] bytes = Objects.toString(s, "").getBytes(StandardCharsets.UTF_8);
+        putLong(bytes.length);
+        for (byte b : bytes) putByte(b);
+    }
+
+}
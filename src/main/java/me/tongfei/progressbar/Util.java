@@ -3,7 +3,6 @@ package me.tongfei.progressbar;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.IOException;
-import java.time.Duration;
 
 /**
  * @author Tongfei Chen
@@ -18,11 +17,86 @@ class Util {
         return new String(s);
     }
 
-    static String formatDuration(Duration d) {
-        long s = d.getSeconds();
+    /**
+     * Returns the number of terminal columns taken by a string: ANSI escape sequences take none,
+     * combining marks take none, and East Asian wide characters take two.
+     */
+    static int displayWidth(CharSequence s) {
+        int w = 0;
+        int i = 0;
+        while (i < s.length()) {
+            if (s.charAt(i) == 0x1b) {
+                i = skipEscape(s, i);
+                continue;
+            }
+            int cp = Character.codePointAt(s, i);
+            i += Character.charCount(cp);
+            w += charWidth(cp);
+        }
+        return w;
+    }
+
+    /**
+     * Truncates a string to the given display width, keeping all its ANSI escape sequences.
+     */
+    static String truncateToWidth(String s, int width) {
+        StringBuilder sb = new StringBuilder(s.length());
+        int w = 0;
+        int i = 0;
+        while (i < s.length()) {
+            if (s.charAt(i) == 0x1b) {
+                int end = skipEscape(s, i);
+                sb.append(s, i, end);
+                i = end;
+                continue;
+            }
+            int cp = Character.codePointAt(s, i);
+            int n = Character.charCount(cp);
+            int cw = charWidth(cp);
+            if (w + cw <= width) {
+                sb.append(s, i, i + n);
+                w += cw;
+            }
+            i += n;
+        }
+        return sb.toString();
+    }
+
+    // returns the index just after the escape sequence starting at i
+    private static int skipEscape(CharSequence s, int i) {
+        if (i + 1 < s.length() && s.charAt(i + 1) == '[') { // CSI: parameters, then a final byte in 0x40..0x7e
+            int j = i + 2;
+            while (j < s.length() && (s.charAt(j) < 0x40 || s.charAt(j) > 0x7e)) j++;
+            return Math.min(j + 1, s.length());
+        }
+        return Math.min(i + 2, s.length());
+    }
+
+    private static int charWidth(int cp) {
+        if (cp < 0x20 || (cp >= 0x7f && cp < 0xa0)) return 0;
+        int type = Character.getType(cp);
+        if (type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK || type == Character.FORMAT) return 0;
+        if ((cp >= 0x1100 && cp <= 0x115f) || (cp >= 0x2e80 && cp <= 0xa4cf && cp != 0x303f)
+                || (cp >= 0xac00 && cp <= 0xd7a3) || (cp >= 0xf900 && cp <= 0xfaff)
+                || (cp >= 0xfe30 && cp <= 0xfe4f) || (cp >= 0xff00 && cp <= 0xff60)
+                || (cp >= 0xffe0 && cp <= 0xffe6) || (cp >= 0x1f300 && cp <= 0x1f64f)
+                || (cp >= 0x1f900 && cp <= 0x1f9ff) || (cp >= 0x20000 && cp <= 0x3fffd))
+            return 2;
+        return 1;
+    }
+
+    static String formatDuration(long nanos) {
+        long s = nanos / 1000000000L;
         return String.format("%d:%02d:%02d", s / 3600, (s % 3600) / 60, s % 60);
     }
 
+    static String formatNanos(long nanos) {
+        if (nanos < 1000L) return nanos + "ns";
+        if (nanos < 1000000L) return String.format("%.1fµs", nanos / 1e3);
+        if (nanos < 1000000000L) return String.format("%.1fms", nanos / 1e6);
+        return String.format("%.1fs", nanos / 1e9);
+    }
+
     static long getInputStreamSize(InputStream is) {
         try {
             if (is instanceof FileInputStream)
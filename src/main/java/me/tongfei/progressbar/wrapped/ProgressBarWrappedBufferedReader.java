@@ -0,0 +1,50 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A buffered reader over a file whose progress is tracked in bytes by a progress bar.
+ * The progress bar shows the position of the underlying channel: reading lines costs nothing more.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedBufferedReader extends BufferedReader {
+
+    private FileChannel channel;
+    private ProgressBar pb;
+    private volatile long lastPosition = 0;
+
+    public ProgressBarWrappedBufferedReader(FileChannel channel, Charset charset, ProgressBar pb) throws IOException {
+        super(Channels.newReader(channel, charset.newDecoder(), -1));
+        this.channel = channel;
+        this.pb = pb;
+        pb.maxHint(channel.size());
+        pb.bind(this::position);
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    private Long position() {
+        try {
+            lastPosition = channel.position();
+        } catch (IOException ignored) {
+            // closed: keeps the last known position
+        }
+        return lastPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pb.close();
+        super.close();
+    }
+
+}
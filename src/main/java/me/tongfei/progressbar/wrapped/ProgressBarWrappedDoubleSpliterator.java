@@ -0,0 +1,38 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A {@link Spliterator.OfDouble} whose progress is tracked by a progress bar, without boxing its elements.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedDoubleSpliterator
+        extends ProgressBarWrappedPrimitiveSpliterator<Double, DoubleConsumer, Spliterator.OfDouble>
+        implements Spliterator.OfDouble {
+
+    public ProgressBarWrappedDoubleSpliterator(Spliterator.OfDouble underlying, ProgressBar pb) {
+        this(underlying, new SplitProgress(pb));
+    }
+
+    private ProgressBarWrappedDoubleSpliterator(Spliterator.OfDouble underlying, SplitProgress progress) {
+        super(underlying, progress);
+    }
+
+    @Override
+    Spliterator.OfDouble wrapChild(Spliterator.OfDouble child, SplitProgress progress) {
+        return new ProgressBarWrappedDoubleSpliterator(child, progress);
+    }
+
+    @Override
+    DoubleConsumer counting(DoubleConsumer action) {
+        return x -> {
+            action.accept(x);
+            traversed++;
+        };
+    }
+
+}
@@ -0,0 +1,153 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.BitOfInformation;
+import me.tongfei.progressbar.ProgressBar;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterable that is iterated several times (epochs), e.g. a training set, with a single progress bar.
+ * <p>
+ * The progress bar tracks the current epoch and is reset at the start of each epoch: nothing is created per epoch,
+ * and the duration of an epoch is the time elapsed on the progress bar.
+ * Under the progress bar, the epoch number and the overall progress are shown, with an estimate of the time
+ * remaining for all the epochs based on the duration of the previous epochs.
+ * The size of the iterable is known beforehand, or counted during the first epoch.
+ * The progress bar is closed at the end of the last epoch.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedEpochs<T> implements Iterable<T>, AutoCloseable {
+
+    private Iterable<T> underlying;
+    private ProgressBar pb;
+    private final int epochs;
+    private volatile long size;
+
+    private volatile int epoch = 0;
+    private volatile long completedNanos = 0; // total duration of the completed epochs
+    private volatile int completedEpochs = 0;
+
+    /**
+     * @param underlying Iterable iterated once per epoch
+     * @param size       Number of elements of the iterable, or -1 if unknown (counted during the first epoch)
+     * @param epochs     Number of epochs
+     * @param pb         Progress bar, reused for every epoch
+     */
+    public ProgressBarWrappedEpochs(Iterable<T> underlying, long size, int epochs, ProgressBar pb) {
+        if (epochs <= 0) throw new IllegalArgumentException("Number of epochs must be positive: " + epochs);
+        this.underlying = underlying;
+        this.epochs = epochs;
+        this.pb = pb;
+        this.size = size;
+        pb.addBitOfInformation(new BitOfInformation("epoch", () -> Math.max(1, epoch) + "/" + epochs));
+        pb.addBitOfInformation(new BitOfInformation("all epochs", this::overall));
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public int getEpochs() {
+        return epochs;
+    }
+
+    /**
+     * Returns the estimated time remaining for all the epochs, in nanoseconds, or -1 if unknown.
+     */
+    public long estimateRemainingNanos() {
+        long s = size;
+        if (epoch == 0 || s <= 0) return -1;
+        double done = epochsDone(s);
+        long elapsed = completedNanos + (completedEpochs < epoch ? pb.getElapsedNanos() : 0);
+        if (done <= 0) return -1;
+        // the previous epochs give the throughput; the current one is only used until an epoch is completed
+        double nanosPerEpoch = completedEpochs > 0 ? (double) completedNanos / completedEpochs : elapsed / done;
+        return (long) ((epochs - done) * nanosPerEpoch);
+    }
+
+    // completed epochs plus the fraction of the current one
+    private double epochsDone(long size) {
+        int completed = completedEpochs;
+        if (completed == epoch) return completed;
+        return completed + Math.min(1.0, (double) pb.getCurrent() / size);
+    }
+
+    private String overall() {
+        long s = size;
+        String percent = s <= 0 ? "?" : String.valueOf((int) Math.floor(100.0 * epochsDone(s) / epochs));
+        long remaining = estimateRemainingNanos();
+        return percent + "% (" + (remaining < 0 ? "?" : formatDuration(remaining)) + " left)";
+    }
+
+    // as the elapsed time and the ETA of the progress bar
+    private static String formatDuration(long nanos) {
+        long s = nanos / 1000000000L;
+        return String.format("%d:%02d:%02d", s / 3600, (s % 3600) / 60, s % 60);
+    }
+
+    /**
+     * Starts a new epoch.
+     *
+     * @throws IllegalStateException if all the epochs were already started
+     */
+    @Override
+    public Iterator<T> iterator() {
+        if (epoch >= epochs)
+            throw new IllegalStateException("All the " + epochs + " epochs were already iterated");
+        // also restarts the time of the first epoch, which may start after the progress bar
+        pb.reset();
+        epoch++;
+        Iterator<T> it = underlying.iterator();
+        return new Iterator<T>() {
+            private long count = 0;
+            private boolean done = false;
+
+            @Override
+            public boolean hasNext() {
+                boolean r = it.hasNext();
+                if (!r && !done) {
+                    done = true;
+                    endEpoch(count);
+                }
+                return r;
+            }
+
+            @Override
+            public T next() {
+                if (done) throw new NoSuchElementException();
+                T r = it.next();
+                count++;
+                pb.step();
+                return r;
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    private void endEpoch(long count) {
+        if (size < 0) {
+            size = count;
+            pb.maxHint(count);
+        }
+        completedNanos += pb.getElapsedNanos();
+        completedEpochs++;
+        if (completedEpochs == epochs) close();
+    }
+
+    @Override
+    public void close() {
+        pb.close();
+    }
+
+}
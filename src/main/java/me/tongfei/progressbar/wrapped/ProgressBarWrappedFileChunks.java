@@ -0,0 +1,102 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+import me.tongfei.progressbar.ProgressLane;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Processes the lines of a large file in parallel, by splitting it into chunks that start at line boundaries.
+ * The progress bar tracks the bytes read in all the chunks; each chunk has its own lane,
+ * showing its progress and rate under the progress bar, so that skew between chunks is visible.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedFileChunks implements AutoCloseable {
+
+    private FileChannel channel;
+    private Charset charset;
+    private ProgressBar pb;
+    private long[] bounds; // chunk i covers [bounds[i], bounds[i + 1])
+    private ProgressLane[] lanes;
+
+    /**
+     * @param channel Channel of the file, closed with this object
+     * @param charset Charset of the file, in which a line feed must be the byte {@code 0x0A}
+     * @param chunks  Number of chunks: fewer chunks are created if the file has not enough lines
+     * @param pb      Progress bar, closed with this object
+     */
+    public ProgressBarWrappedFileChunks(FileChannel channel, Charset charset, int chunks, ProgressBar pb) throws IOException {
+        if (!ProgressBarWrappedLineSpliterator.supports(charset))
+            throw new IllegalArgumentException("Lines can not be split on line feed bytes in " + charset);
+        this.channel = channel;
+        this.charset = charset;
+        this.pb = pb;
+        long size = channel.size();
+        pb.maxHint(size);
+
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        for (int i = 1; i < chunks; i++) {
+            long from = Math.max(size * i / chunks, starts.get(starts.size() - 1) + 1);
+            if (from >= size) break;
+            long start = ProgressBarWrappedLineSpliterator.nextLineStart(channel, from, size);
+            if (start >= size) break;
+            if (start > starts.get(starts.size() - 1)) starts.add(start);
+        }
+        bounds = new long[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) bounds[i] = starts.get(i);
+        bounds[starts.size()] = size;
+
+        lanes = new ProgressLane[starts.size()];
+        for (int i = 0; i < lanes.length; i++)
+            lanes[i] = pb.addLane("#" + (i + 1), bounds[i + 1] - bounds[i]);
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    public int getChunkCount() {
+        return lanes.length;
+    }
+
+    public ProgressLane getLane(int chunk) {
+        return lanes[chunk];
+    }
+
+    /**
+     * Performs the action on every line of the file, the chunks being processed in parallel on the pool.
+     * Lines of the same chunk are processed in order, by one thread at a time.
+     * Returns when all the chunks are processed; an exception thrown by the action is rethrown.
+     */
+    public void forEachLine(ForkJoinPool pool, Consumer<? super String> action) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            ProgressLane lane = lanes[i];
+            ProgressBarWrappedLineSpliterator sp =
+                    new ProgressBarWrappedLineSpliterator(channel, bounds[i], bounds[i + 1], charset, lane::stepBy);
+            tasks.add(pool.submit(() -> sp.forEachRemaining(action)));
+        }
+        for (ForkJoinTask<?> task : tasks) task.join();
+    }
+
+    @Override
+    public void close() {
+        pb.close();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
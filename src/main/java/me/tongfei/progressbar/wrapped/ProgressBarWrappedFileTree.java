@@ -0,0 +1,175 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A traversal of a file tree whose progress is tracked by a progress bar.
+ * <p>
+ * While the tree is traversed, it is also scanned in parallel (on the common fork-join pool) to compute
+ * the number of files and their total size. The maximum of the progress bar is raised as the scan proceeds,
+ * so that processing can start right away instead of waiting for a serial pre-pass.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedFileTree implements AutoCloseable {
+
+    /** What the progress of a file tree traversal is counted in. */
+    public enum Unit {
+        /** Number of regular files. */
+        FILES,
+        /** Total size of the regular files, in bytes. */
+        BYTES
+    }
+
+    private Path root;
+    private ProgressBar pb;
+    private Unit unit;
+
+    private final AtomicLong scannedFiles = new AtomicLong();
+    private final AtomicLong scannedBytes = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean cancelled = false;
+    private final ScanTask scan;
+
+    /**
+     * Starts scanning the file tree.
+     *
+     * @param root Root of the file tree
+     * @param pb   Progress bar
+     * @param unit What progress is counted in
+     */
+    public ProgressBarWrappedFileTree(Path root, ProgressBar pb, Unit unit) {
+        this.root = root;
+        this.pb = pb;
+        this.unit = unit;
+        this.scan = new ScanTask(root);
+        ForkJoinPool.commonPool().execute(scan);
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    /**
+     * Returns whether the whole tree has been scanned, i.e. the maximum of the progress bar is final.
+     */
+    public boolean isScanComplete() {
+        return scan.isDone();
+    }
+
+    /**
+     * Returns a lazily populated stream of all the paths in the file tree, as {@link Files#walk(Path, java.nio.file.FileVisitOption...)}.
+     * The progress bar advances as regular files are reached, and is closed when the stream is exhausted or closed.
+     */
+    public Stream<Path> stream() throws IOException {
+        Stream<Path> paths;
+        try {
+            paths = Files.find(root, Integer.MAX_VALUE, (p, attrs) -> {
+                if (attrs.isRegularFile()) pb.stepBy(unit == Unit.BYTES ? attrs.size() : 1);
+                return true;
+            });
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        Spliterator<Path> sp = paths.spliterator();
+        Spliterator<Path> closing = new Spliterators.AbstractSpliterator<Path>(sp.estimateSize(), sp.characteristics()) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Path> action) {
+                boolean r = sp.tryAdvance(action);
+                if (!r) close();
+                return r;
+            }
+        };
+        return StreamSupport.stream(closing, false).onClose(() -> {
+            paths.close();
+            close();
+        });
+    }
+
+    /**
+     * Stops the scan if still running, and closes the progress bar.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            cancelled = true;
+            pb.close();
+        }
+    }
+
+    private void addScanned(long files, long bytes) {
+        long f = scannedFiles.addAndGet(files);
+        long b = scannedBytes.addAndGet(bytes);
+        long total = unit == Unit.BYTES ? b : f;
+        // tasks finishing concurrently may see their totals out of order: the maximum is only raised
+        synchronized (this) {
+            if (total > pb.getMax()) pb.maxHint(total);
+        }
+    }
+
+    private class ScanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+
+        ScanTask(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) return;
+            long files = 0;
+            long bytes = 0;
+            List<ScanTask> subtasks = new ArrayList<>();
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(dir, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (!attrs.isDirectory()) { // the root itself may be a file
+                    if (attrs.isRegularFile()) addScanned(1, attrs.size());
+                    return;
+                }
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                    for (Path p : entries) {
+                        BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (a.isDirectory()) {
+                            ScanTask t = new ScanTask(p);
+                            t.fork();
+                            subtasks.add(t);
+                        }
+                        else if (a.isRegularFile()) {
+                            files++;
+                            bytes += a.size();
+                        }
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException ignored) {
+                // unreadable entries are not counted; the traversal reports its own errors
+            }
+            addScanned(files, bytes);
+            for (ScanTask t : subtasks) t.join();
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A GZIP input stream whose progress is tracked by a progress bar on the compressed bytes consumed from the
+ * underlying stream, so that it can be compared with the size of a compressed file while decompressed data is read.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedGZIPInputStream extends GZIPInputStream {
+
+    static final int BUFFER_SIZE = 65536;
+
+    private ProgressBar pb;
+
+    /**
+     * @param in Compressed input stream
+     * @param pb Progress bar, whose maximum is the compressed size if known
+     * @throws IOException if the GZIP header can not be read
+     */
+    public ProgressBarWrappedGZIPInputStream(InputStream in, ProgressBar pb) throws IOException {
+        // closing the GZIP stream closes the progress bar with the underlying stream
+        super(new ProgressBarWrappedInputStream(in, pb), BUFFER_SIZE);
+        this.pb = pb;
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+}
@@ -0,0 +1,38 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link Spliterator.OfInt} whose progress is tracked by a progress bar, without boxing its elements.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedIntSpliterator
+        extends ProgressBarWrappedPrimitiveSpliterator<Integer, IntConsumer, Spliterator.OfInt>
+        implements Spliterator.OfInt {
+
+    public ProgressBarWrappedIntSpliterator(Spliterator.OfInt underlying, ProgressBar pb) {
+        this(underlying, new SplitProgress(pb));
+    }
+
+    private ProgressBarWrappedIntSpliterator(Spliterator.OfInt underlying, SplitProgress progress) {
+        super(underlying, progress);
+    }
+
+    @Override
+    Spliterator.OfInt wrapChild(Spliterator.OfInt child, SplitProgress progress) {
+        return new ProgressBarWrappedIntSpliterator(child, progress);
+    }
+
+    @Override
+    IntConsumer counting(IntConsumer action) {
+        return x -> {
+            action.accept(x);
+            traversed++;
+        };
+    }
+
+}
@@ -0,0 +1,219 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A spliterator over the lines of a file, whose progress is tracked in bytes by a progress bar.
+ * <p>
+ * The file is read through its channel in large blocks and the progress bar advances once per block,
+ * not once per line. The spliterator splits at line boundaries, so that large files
+ * can be scanned by parallel streams.
+ * Only charsets in which a line feed is always the single byte {@code 0x0A} are supported
+ * (see {@link #supports(Charset)}).
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedLineSpliterator implements Spliterator<String>, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MIN_SPLIT_SIZE = 1 << 20;
+
+    private FileChannel channel;
+    private Charset charset;
+    private ProgressBar pb;
+    private LongConsumer progress;
+    private AtomicInteger openSplits;
+
+    private long position; // next byte of the file to be read into the buffer
+    private long end; // this split covers the lines starting in [.., end)
+    private ByteBuffer buffer; // bytes read but not consumed yet, in read mode
+    private byte[] partial = new byte[256]; // start of a line that spans several blocks
+    private int partialLength = 0;
+    private boolean exhausted = false;
+
+    /**
+     * Creates a spliterator over all the lines of the file. The channel and the progress bar
+     * are closed once all the splits are exhausted.
+     *
+     * @param channel Channel of the file
+     * @param charset Charset of the file
+     * @param pb      Progress bar
+     */
+    public ProgressBarWrappedLineSpliterator(FileChannel channel, Charset charset, ProgressBar pb) throws IOException {
+        this(channel, 0, channel.size(), charset, pb, pb::stepBy, new AtomicInteger());
+    }
+
+    /**
+     * Creates a spliterator over the lines of a range of the file, reporting the bytes read to {@code progress}.
+     * The range must start at the beginning of a line. Neither the channel nor any progress bar is closed.
+     */
+    ProgressBarWrappedLineSpliterator(FileChannel channel, long start, long end, Charset charset, LongConsumer progress) {
+        this(channel, start, end, charset, null, progress, new AtomicInteger());
+    }
+
+    private ProgressBarWrappedLineSpliterator(FileChannel channel, long start, long end, Charset charset, ProgressBar pb, LongConsumer progress, AtomicInteger openSplits) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+        this.charset = charset;
+        this.pb = pb;
+        this.progress = progress;
+        this.openSplits = openSplits;
+        openSplits.incrementAndGet();
+    }
+
+    /**
+     * Returns whether lines in the given charset can be split on the byte {@code 0x0A}.
+     */
+    public static boolean supports(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    @Override
+    public void close() {
+        pb.close();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (exhausted) return false;
+        String line;
+        try {
+            line = nextLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (line == null) {
+            exhausted = true;
+            buffer = null;
+            if (openSplits.decrementAndGet() == 0 && pb != null) close();
+            // only closes the progress bar if no split is working anymore
+            return false;
+        }
+        action.accept(line);
+        return true;
+    }
+
+    private String nextLine() throws IOException {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.flip();
+        }
+        partialLength = 0;
+        while (true) {
+            byte[] a = buffer.array();
+            int start = buffer.position();
+            for (int i = start; i < buffer.limit(); i++) {
+                if (a[i] == '\n') {
+                    buffer.position(i + 1);
+                    if (partialLength == 0) return decode(a, start, i);
+                    appendPartial(a, start, i);
+                    return decode(partial, 0, partialLength);
+                }
+            }
+            appendPartial(a, start, buffer.limit());
+            if (fill() == 0) // last line without line feed
+                return partialLength == 0 ? null : decode(partial, 0, partialLength);
+        }
+    }
+
+    // reads the next block of this split, returns the number of bytes read
+    private int fill() throws IOException {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + total);
+            if (n == -1) break;
+            total += n;
+        }
+        buffer.flip();
+        position += total;
+        progress.accept(total);
+        return total;
+    }
+
+    private void appendPartial(byte[] a, int from, int to) {
+        int n = to - from;
+        if (partialLength + n > partial.length)
+            partial = Arrays.copyOf(partial, Math.max(partial.length * 2, partialLength + n));
+        System.arraycopy(a, from, partial, partialLength, n);
+        partialLength += n;
+    }
+
+    private String decode(byte[] a, int from, int to) {
+        if (to > from && a[to - 1] == '\r') to--;
+        return new String(a, from, to - from, charset);
+    }
+
+    /**
+     * Splits off the lines up to the first line boundary after the middle of the remaining bytes.
+     */
+    @Override
+    public Spliterator<String> trySplit() {
+        if (exhausted || end - position < MIN_SPLIT_SIZE) return null;
+        long lineStart;
+        try {
+            lineStart = nextLineStart(channel, position + (end - position) / 2, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (lineStart >= end) return null;
+        // the returned prefix takes over what has been read so far
+        ProgressBarWrappedLineSpliterator prefix = new ProgressBarWrappedLineSpliterator(channel, position, lineStart, charset, pb, progress, openSplits);
+        prefix.buffer = buffer;
+        buffer = null;
+        position = lineStart;
+        return prefix;
+    }
+
+    // returns the position following the first line feed at or after from - 1, or end if there is none before end
+    static long nextLineStart(FileChannel channel, long from, long end) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(8192);
+        long p = from - 1;
+        while (p < end) {
+            b.clear();
+            int n = channel.read(b, p);
+            if (n <= 0) return end;
+            for (int i = 0; i < n; i++)
+                if (b.get(i) == '\n') return p + i + 1;
+            p += n;
+        }
+        return end;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - position; // in bytes: at least the number of remaining lines
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+}
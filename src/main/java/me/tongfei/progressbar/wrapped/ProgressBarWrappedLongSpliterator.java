@@ -0,0 +1,38 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link Spliterator.OfLong} whose progress is tracked by a progress bar, without boxing its elements.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedLongSpliterator
+        extends ProgressBarWrappedPrimitiveSpliterator<Long, LongConsumer, Spliterator.OfLong>
+        implements Spliterator.OfLong {
+
+    public ProgressBarWrappedLongSpliterator(Spliterator.OfLong underlying, ProgressBar pb) {
+        this(underlying, new SplitProgress(pb));
+    }
+
+    private ProgressBarWrappedLongSpliterator(Spliterator.OfLong underlying, SplitProgress progress) {
+        super(underlying, progress);
+    }
+
+    @Override
+    Spliterator.OfLong wrapChild(Spliterator.OfLong child, SplitProgress progress) {
+        return new ProgressBarWrappedLongSpliterator(child, progress);
+    }
+
+    @Override
+    LongConsumer counting(LongConsumer action) {
+        return x -> {
+            action.accept(x);
+            traversed++;
+        };
+    }
+
+}
@@ -0,0 +1,187 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.BitOfInformation;
+import me.tongfei.progressbar.ProgressBar;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An input stream whose progress is tracked by a progress bar, and that reads the underlying stream ahead
+ * on a daemon thread, so that reading (e.g. from a slow disk) overlaps with the processing of the data.
+ * <p>
+ * The data is read into a fixed ring of buffers that are reused: the reading thread fills the free buffers
+ * and waits when all of them are filled. The progress is the number of bytes consumed from this stream,
+ * not read ahead; the fill level of the buffers is shown as a bit of information.
+ * Marks are not supported.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedPrefetchingInputStream extends InputStream {
+
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+    public static final int DEFAULT_BUFFERS = 4;
+
+    private static class Chunk {
+        final byte[] data;
+        int length; // -1 at the end of the stream
+
+        Chunk(int size) {
+            data = new byte[size];
+        }
+    }
+
+    private static final Chunk END = new Chunk(0);
+
+    static {
+        END.length = -1;
+    }
+
+    private final InputStream in;
+    private final ProgressBar pb;
+    private final int buffers;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Thread reader;
+    private volatile Throwable error; // thrown by the reading thread, rethrown to the consumer
+    private volatile boolean closed = false;
+
+    private Chunk chunk; // being consumed
+    private int pos = 0;
+
+    public ProgressBarWrappedPrefetchingInputStream(InputStream in, ProgressBar pb) {
+        this(in, pb, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFERS);
+    }
+
+    /**
+     * @param in         Underlying input stream
+     * @param pb         Progress bar
+     * @param bufferSize Size of each buffer, in bytes
+     * @param buffers    Number of buffers of the ring (at least 2, so that reading and consuming overlap)
+     */
+    public ProgressBarWrappedPrefetchingInputStream(InputStream in, ProgressBar pb, int bufferSize, int buffers) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        if (buffers < 2) throw new IllegalArgumentException("At least 2 buffers are needed: " + buffers);
+        this.in = in;
+        this.pb = pb;
+        this.buffers = buffers;
+        this.free = new ArrayBlockingQueue<>(buffers);
+        this.filled = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) free.add(new Chunk(bufferSize));
+        pb.addBitOfInformation(new BitOfInformation("buffer", () -> (100 * filled.size() / this.buffers) + "%"));
+        this.reader = new Thread(this::prefetch, getClass().getName());
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    private void prefetch() {
+        try {
+            while (true) {
+                Chunk c = free.take();
+                c.length = in.read(c.data);
+                if (c.length == -1) {
+                    free.add(c);
+                    return;
+                }
+                filled.put(c);
+            }
+        } catch (InterruptedException e) {
+            // closed
+        } catch (Throwable t) {
+            if (!closed) error = t;
+        } finally {
+            // the consumer must never wait for data that will not come
+            try {
+                filled.put(END);
+            } catch (InterruptedException e) {
+                // closed
+            }
+        }
+    }
+
+    private void rethrowError() throws IOException {
+        Throwable t = error;
+        if (t == null) return;
+        if (t instanceof IOException) throw (IOException) t;
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        throw new IOException(t);
+    }
+
+    // returns false at the end of the stream
+    private boolean nextChunk() throws IOException {
+        if (chunk != null) {
+            if (pos < chunk.length) return true;
+            if (chunk.length == -1) {
+                rethrowError();
+                return false;
+            }
+            free.add(chunk);
+            chunk = null;
+        }
+        if (closed) throw new IOException("Stream closed");
+        Chunk c;
+        while (true) {
+            try {
+                c = filled.take();
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for data", e);
+            }
+        }
+        chunk = c;
+        pos = 0;
+        if (c.length == -1) {
+            rethrowError();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (chunk == null || pos >= chunk.length)
+            if (!nextChunk()) return -1;
+        pb.step();
+        return chunk.data[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) throw new IndexOutOfBoundsException();
+        if (len == 0) return 0;
+        while (chunk == null || pos >= chunk.length)
+            if (!nextChunk()) return -1;
+        int n = Math.min(len, chunk.length - pos);
+        System.arraycopy(chunk.data, pos, b, off, n);
+        pos += n;
+        pb.stepBy(n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null ? 0 : Math.max(0, chunk.length - pos);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        reader.interrupt();
+        try {
+            in.close();
+        } finally {
+            pb.close();
+        }
+    }
+
+}
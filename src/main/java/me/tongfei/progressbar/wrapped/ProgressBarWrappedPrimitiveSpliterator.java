@@ -0,0 +1,90 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+
+/**
+ * Common base of the spliterators over primitive values whose progress is tracked by a progress bar.
+ * Elements are counted with the step handle of the traversing thread (see {@link SplitProgress}), so that
+ * numeric pipelines are neither boxed nor synchronized on every element. A bulk traversal
+ * ({@code forEachRemaining}) only counts its elements locally, and reports them at once when it returns or throws.
+ * @author cl
+ * @since 0.7.3
+ */
+abstract class ProgressBarWrappedPrimitiveSpliterator<T, C, S extends Spliterator.OfPrimitive<T, C, S>>
+        implements Spliterator.OfPrimitive<T, C, S>, AutoCloseable {
+
+    S underlying;
+    SplitProgress progress;
+    // elements passed to the action of the bulk traversal in progress
+    long traversed = 0;
+
+    ProgressBarWrappedPrimitiveSpliterator(S underlying, SplitProgress progress) {
+        this.underlying = underlying;
+        this.progress = progress;
+    }
+
+    /**
+     * Wraps a split-off part of the underlying spliterator, sharing the progress bar with this one.
+     */
+    abstract S wrapChild(S child, SplitProgress progress);
+
+    /**
+     * Wraps an action so that every element passed to it is counted in {@link #traversed}.
+     */
+    abstract C counting(C action);
+
+    public ProgressBar getProgressBar() {
+        return progress.getProgressBar();
+    }
+
+    @Override
+    public void close() {
+        getProgressBar().close();
+    }
+
+    @Override
+    public boolean tryAdvance(C action) {
+        boolean r = underlying.tryAdvance(action);
+        if (r) progress.count(1, underlying);
+        // only closes the progressbar if no spliterator is working anymore
+        else progress.exhausted();
+        return r;
+    }
+
+    @Override
+    public void forEachRemaining(C action) {
+        traversed = 0;
+        try {
+            underlying.forEachRemaining(counting(action));
+        } finally {
+            if (traversed > 0) progress.count(traversed, underlying);
+        }
+        progress.exhausted();
+    }
+
+    @Override
+    public S trySplit() {
+        S u = underlying.trySplit();
+        if (u != null) return wrapChild(u, progress.split());
+        else return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return underlying.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return underlying.characteristics();
+    }
+
+    @Override // if not overridden, may return null since that is the default Spliterator implementation
+    public Comparator<? super T> getComparator() {
+        return underlying.getComparator();
+    }
+
+}
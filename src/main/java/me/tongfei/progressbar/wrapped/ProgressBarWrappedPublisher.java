@@ -0,0 +1,32 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBarBuilder;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+/**
+ * A Reactive Streams {@link Publisher} whose subscriptions are tracked by progress bars.
+ * Every subscription gets its own progress bar, built from the given builder.
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedPublisher<T> implements Publisher<T> {
+
+    private Publisher<T> underlying;
+    private ProgressBarBuilder pbb;
+
+    public ProgressBarWrappedPublisher(Publisher<T> underlying, ProgressBarBuilder pbb) {
+        this.underlying = underlying;
+        this.pbb = pbb;
+    }
+
+    public ProgressBarBuilder getProgressBarBuilder() {
+        return pbb;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        underlying.subscribe(new ProgressBarWrappedSubscriber<>(subscriber, pbb.build()));
+    }
+
+}
@@ -2,10 +2,7 @@ package me.tongfei.progressbar.wrapped;
 
 import me.tongfei.progressbar.ProgressBar;
 
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 
@@ -16,55 +13,48 @@ import java.util.function.Consumer;
 public class ProgressBarWrappedSpliterator<T> implements Spliterator<T>, AutoCloseable {
 
     private Spliterator<T> underlying;
-    private ProgressBar pb;
-    private Set<Spliterator<T>> openChildren;
+    private SplitProgress progress;
 
     public ProgressBarWrappedSpliterator(Spliterator<T> underlying, ProgressBar pb) {
-        this(underlying, pb, Collections.synchronizedSet(new HashSet<>())); // has to be synchronized
+        this(underlying, new SplitProgress(pb));
     }
 
-    private ProgressBarWrappedSpliterator(Spliterator<T> underlying, ProgressBar pb, Set<Spliterator<T>> openChildren) {
+    private ProgressBarWrappedSpliterator(Spliterator<T> underlying, SplitProgress progress) {
         this.underlying = underlying;
-        this.pb = pb;
-        this.openChildren = openChildren;
-        this.openChildren.add(this);
+        this.progress = progress;
     }
 
     public ProgressBar getProgressBar() {
-        return pb;
+        return progress.getProgressBar();
     }
 
     @Override
     public void close() {
-        pb.close();
-    }
-
-    private void registerChild(Spliterator<T> child) {
-        openChildren.add(child);
-    }
-
-    private void removeThis() {
-        openChildren.remove(this);
-        if (openChildren.size() == 0) close();
-        // only closes the progressbar if no spliterator is working anymore
+        getProgressBar().close();
     }
 
     @Override
     public boolean tryAdvance(Consumer<? super T> action) {
         boolean r = underlying.tryAdvance(action);
-        if (r) pb.step();
-        else removeThis();
+        if (r) progress.count(1, underlying);
+        // only closes the progressbar if no spliterator is working anymore
+        else progress.exhausted();
         return r;
     }
 
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        underlying.forEachRemaining(x -> {
+            action.accept(x);
+            progress.count(1, underlying);
+        });
+        progress.exhausted();
+    }
+
     @Override
     public Spliterator<T> trySplit() {
         Spliterator<T> u = underlying.trySplit();
-        if (u != null) {
-            ProgressBarWrappedSpliterator<T> child = new ProgressBarWrappedSpliterator<>(u, pb, openChildren);
-            registerChild(child);
-            return child;
-        }
+        if (u != null) return new ProgressBarWrappedSpliterator<>(u, progress.split());
         else return null;
     }
 
@@ -0,0 +1,109 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+import me.tongfei.progressbar.StepHandle;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sits between a Reactive Streams publisher and its subscriber, counting the elements signalled
+ * through {@code onNext}. Demand and cancellation are passed upstream untouched, so backpressure
+ * is preserved.
+ * <p>
+ * Elements are counted with the step handle of the thread signalling them, so that no shared state is written
+ * per element; the handles are flushed when the progress bar is closed on completion, error or cancellation.
+ * </p>
+ * <p>
+ * If the progress bar has no maximum when subscribed, the maximum follows the total demand
+ * requested by the subscriber (indefinite if the demand is unbounded).
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedSubscriber<T> implements Subscriber<T>, Subscription, AutoCloseable {
+
+    private Subscriber<? super T> downstream;
+    private ProgressBar pb;
+    private boolean sized;
+    private Subscription upstream;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // only touched by onNext / onComplete / onError, which are signalled serially (Reactive Streams §1.3)
+    private long delivered = 0;
+    // step handle of the thread signalling onNext, which may change from one signal to the next
+    private Thread owner;
+    private StepHandle handle;
+
+    public ProgressBarWrappedSubscriber(Subscriber<? super T> downstream, ProgressBar pb) {
+        this.downstream = downstream;
+        this.pb = pb;
+        this.sized = pb.getMax() > 0;
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        this.upstream = subscription;
+        downstream.onSubscribe(this);
+    }
+
+    @Override
+    public void onNext(T t) {
+        delivered++;
+        Thread current = Thread.currentThread();
+        if (current != owner) {
+            owner = current;
+            handle = pb.handle();
+        }
+        handle.step();
+        downstream.onNext(t);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        close();
+        downstream.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        if (!sized) pb.maxHint(delivered); // the stream is complete: demand not used up does not count
+        close();
+        downstream.onComplete();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n > 0) {
+            long r = requested.accumulateAndGet(n, ProgressBarWrappedSubscriber::addCapped);
+            if (!sized) pb.maxHint(r == Long.MAX_VALUE ? -1 : r);
+        }
+        upstream.request(n); // invalid demand is reported by the upstream publisher (Reactive Streams §3.9)
+    }
+
+    @Override
+    public void cancel() {
+        upstream.cancel();
+        close();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true))
+            pb.close();
+    }
+
+    private static long addCapped(long a, long b) {
+        long r = a + b;
+        return r < 0 ? Long.MAX_VALUE : r;
+    }
+
+}
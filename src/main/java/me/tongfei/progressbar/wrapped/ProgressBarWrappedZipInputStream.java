@@ -0,0 +1,119 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.BitOfInformation;
+import me.tongfei.progressbar.ProgressBar;
+import me.tongfei.progressbar.ProgressLane;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * A ZIP input stream whose progress is tracked by a progress bar on the compressed bytes consumed from the
+ * underlying stream, so that it can be compared with the size of the archive while decompressed entries are read.
+ * <p>
+ * The entry being read has a lane under the progress bar, with its progress on its compressed size (if stored before
+ * its data) and its rate; the lane is removed when the next entry is reached. The number of entries reached is shown.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+public class ProgressBarWrappedZipInputStream extends ZipInputStream {
+
+    // counts the compressed bytes into the lane of the current entry, or directly into the progress bar
+    private static class CompressedCounter extends FilterInputStream {
+
+        private volatile LongConsumer target;
+
+        CompressedCounter(InputStream in, ProgressBar pb) {
+            super(in);
+            this.target = pb::stepBy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int r = in.read();
+            if (r != -1) target.accept(1);
+            return r;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int r = in.read(b, off, len);
+            if (r > 0) target.accept(r);
+            return r;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long r = in.skip(n);
+            if (r > 0) target.accept(r);
+            return r;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+    }
+
+    private final ProgressBar pb;
+    private final CompressedCounter counter;
+    private ProgressLane lane;
+    private volatile int entries = 0;
+    private boolean closed = false;
+
+    /**
+     * @param in Input stream of the archive
+     * @param pb Progress bar, whose maximum is the size of the archive if known
+     */
+    public ProgressBarWrappedZipInputStream(InputStream in, ProgressBar pb) {
+        this(new CompressedCounter(in, pb), pb);
+    }
+
+    private ProgressBarWrappedZipInputStream(CompressedCounter counter, ProgressBar pb) {
+        super(counter);
+        this.counter = counter;
+        this.pb = pb;
+        pb.addBitOfInformation(new BitOfInformation("entries", () -> String.valueOf(entries)));
+    }
+
+    public ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    @Override
+    public ZipEntry getNextEntry() throws IOException {
+        // the end of the previous entry, up to the next header, is read before returning
+        ZipEntry entry = super.getNextEntry();
+        if (lane != null) pb.removeLane(lane);
+        if (entry == null) {
+            lane = null;
+            counter.target = pb::stepBy;
+            // the central directory at the end of the archive is not read
+            if (pb.getMax() > pb.getCurrent()) pb.stepTo(pb.getMax());
+        }
+        else {
+            entries++;
+            lane = pb.addLane(entry.getName(), entry.getCompressedSize());
+            counter.target = lane::stepBy;
+        }
+        return entry;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            super.close();
+        } finally {
+            pb.close();
+        }
+    }
+
+}
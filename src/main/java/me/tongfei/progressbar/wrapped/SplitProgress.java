@@ -0,0 +1,84 @@
+package me.tongfei.progressbar.wrapped;
+
+import me.tongfei.progressbar.ProgressBar;
+import me.tongfei.progressbar.ProgressLane;
+import me.tongfei.progressbar.StepHandle;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The progress of one split of a wrapped spliterator: counts its elements, and closes the progress bar
+ * when the last split is exhausted.
+ * <p>
+ * Elements are counted with the step handle (or the lane) of the traversing thread, so that no shared state
+ * is written per element, while the rendering still sees the count.
+ * A split is traversed by a single thread at a time, hence no synchronization.
+ * </p>
+ * @author cl
+ * @since 0.7.3
+ */
+class SplitProgress {
+
+    private final ProgressBar pb;
+    // number of splits not exhausted yet, shared by all the splits
+    private final AtomicInteger openSplits;
+    private boolean exhausted = false;
+    // counters of the thread traversing this split
+    private Thread owner;
+    private StepHandle handle;
+    private ProgressLane lane;
+
+    SplitProgress(ProgressBar pb) {
+        this(pb, new AtomicInteger());
+    }
+
+    private SplitProgress(ProgressBar pb, AtomicInteger openSplits) {
+        this.pb = pb;
+        this.openSplits = openSplits;
+        // a split is counted before it is returned by its parent, which is still open:
+        // the count can not drop to zero while some split is still to be traversed
+        openSplits.incrementAndGet();
+    }
+
+    /**
+     * Returns the progress of a split-off part of this split.
+     */
+    SplitProgress split() {
+        return new SplitProgress(pb, openSplits);
+    }
+
+    ProgressBar getProgressBar() {
+        return pb;
+    }
+
+    /**
+     * Counts {@code n} elements of the given split.
+     */
+    void count(long n, Spliterator<?> split) {
+        Thread t = Thread.currentThread();
+        if (t != owner) {
+            owner = t;
+            if (pb.isWorkerLanesShown()) lane = pb.workerLane();
+            else handle = pb.handle();
+        }
+        if (lane != null) {
+            lane.stepBy(n);
+            lane.setRemaining(split.estimateSize());
+        }
+        else handle.stepBy(n);
+    }
+
+    /**
+     * Marks the split as exhausted, closing the progress bar if no split is left.
+     * Has no effect if the split was already exhausted.
+     */
+    void exhausted() {
+        if (exhausted) return;
+        exhausted = true;
+        if (lane != null) lane.setRemaining(0);
+        else if (handle != null) handle.flush();
+        if (openSplits.decrementAndGet() == 0) pb.close();
+    }
+
+}
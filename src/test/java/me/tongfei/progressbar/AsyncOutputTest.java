@@ -0,0 +1,69 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class AsyncOutputTest {
+
+    /** An output stream that takes 100 ms for every write, like a stalled pipe. */
+    private static class SlowOutputStream extends OutputStream {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        @Override
+        public synchronized void write(int b) {
+            written.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.write(b, off, len);
+        }
+
+        synchronized String content() {
+            return written.toString();
+        }
+    }
+
+    @Test
+    public void test() throws InterruptedException {
+        SlowOutputStream out = new SlowOutputStream();
+        ProgressBar pb = new ProgressBarBuilder()
+                .setTaskName("Async")
+                .setInitialMax(100)
+                .setUpdateIntervalMillis(5)
+                .setStyle(ProgressBarStyle.ASCII)
+                .setPrintStream(new PrintStream(out))
+                .setAsyncOutput(true)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            pb.step();
+            Thread.sleep(5);
+        }
+        long start = System.nanoTime();
+        pb.close();
+        long closeMillis = (System.nanoTime() - start) / 1000000;
+        // closing does not wait for the stalled print stream
+        assertTrue("close took " + closeMillis + " ms", closeMillis < 100);
+        assertTrue(pb.getDroppedFrames() > 0);
+        // the last frame and the trailer are written afterwards
+        String trailer = FrameWriter.INITIALIZE_CSI + FrameWriter.MOVE_UP + System.lineSeparator();
+        long deadline = System.nanoTime() + 5000000000L;
+        while (!out.content().endsWith(trailer) && System.nanoTime() < deadline) Thread.sleep(10);
+        assertTrue(out.content().endsWith(trailer));
+        assertTrue(out.content().contains("100%"));
+    }
+
+}
@@ -0,0 +1,39 @@
+package me.tongfei.progressbar;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark of opening and closing many short-lived progress bars, as when wrapping many small iterables.
+ * Not part of the unit tests: run its main method.
+ * @author cl
+ */
+public class BulkOpenCloseBenchmark {
+
+    public static void main(String[] args) {
+        int bars = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName("Bulk").setPrintStream(BulkOpenCloseTest.nowhere());
+        List<Integer> small = Arrays.asList(1, 2, 3);
+
+        for (int round = 0; round < 3; round++) {
+            long openNanos = 0;
+            long closeNanos = 0;
+            long maxCloseNanos = 0;
+            for (int i = 0; i < bars; i++) {
+                long t0 = System.nanoTime();
+                ProgressBar pb = pbb.setInitialMax(small.size()).build();
+                long t1 = System.nanoTime();
+                for (Integer x : small) pb.step();
+                long t2 = System.nanoTime();
+                pb.close();
+                long t3 = System.nanoTime();
+                openNanos += t1 - t0;
+                closeNanos += t3 - t2;
+                maxCloseNanos = Math.max(maxCloseNanos, t3 - t2);
+            }
+            System.out.printf("%d bars: open %s, close %s on average, slowest close %s%n", bars,
+                    Util.formatNanos(openNanos / bars), Util.formatNanos(closeNanos / bars), Util.formatNanos(maxCloseNanos));
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Opening and closing many short-lived progress bars, as when wrapping many small iterables.
+ * See {@link BulkOpenCloseBenchmark} for the timings.
+ * @author cl
+ */
+public class BulkOpenCloseTest {
+
+    private static final int BARS = 2000;
+
+    static PrintStream nowhere() {
+        return new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+
+            @Override
+            public void write(byte[] b, int off, int len) { }
+        });
+    }
+
+    @Test
+    public void test() {
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName("Bulk").setPrintStream(nowhere());
+        List<Integer> small = Arrays.asList(1, 2, 3);
+
+        long closeNanos = 0;
+        for (int i = 0; i < BARS; i++) {
+            ProgressBar pb = pbb.setInitialMax(small.size()).build();
+            for (Integer x : small) pb.step();
+            long t0 = System.nanoTime();
+            pb.close();
+            closeNanos += System.nanoTime() - t0;
+            assertTrue(pb.isClosed());
+        }
+        // closing must not wait for the update interval (1 s)
+        assertTrue(closeNanos / BARS < 10000000L);
+    }
+
+}
@@ -0,0 +1,97 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedGZIPInputStream;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedZipInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class CompressedInputTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // compressible but not trivially: random digits
+    private static byte[] data(int n, long seed) {
+        Random random = new Random(seed);
+        byte[] data = new byte[n];
+        for (int i = 0; i < n; i++) data[i] = (byte) ('0' + random.nextInt(10));
+        return data;
+    }
+
+    private static long drain(InputStream is) throws IOException {
+        byte[] b = new byte[8192];
+        long total = 0;
+        int n;
+        while ((n = is.read(b)) != -1) total += n;
+        return total;
+    }
+
+    @Test
+    public void gzipTest() throws IOException {
+        Path file = folder.newFile("data.gz").toPath();
+        try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(file))) {
+            os.write(data(2000000, 1));
+        }
+        long compressed = Files.size(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBarWrappedGZIPInputStream is = ProgressBar.wrapGzip(file,
+                new ProgressBarBuilder().setTaskName("Gunzip").setPrintStream(new PrintStream(out)));
+        ProgressBar pb = is.getProgressBar();
+        assertEquals(compressed, pb.getMax());
+        assertEquals(2000000, drain(is));
+        is.close();
+        // the progress is on the compressed bytes
+        assertEquals(compressed, pb.getCurrent());
+        assertTrue(out.toString().contains("100%"));
+    }
+
+    @Test
+    public void zipTest() throws IOException {
+        Path file = folder.newFile("data.zip").toPath();
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(file))) {
+            for (int i = 0; i < 3; i++) {
+                zos.putNextEntry(new ZipEntry("part-" + i + ".txt"));
+                zos.write(data(500000, i));
+                zos.closeEntry();
+            }
+        }
+        long compressed = Files.size(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBarWrappedZipInputStream zis = ProgressBar.wrapZip(file,
+                new ProgressBarBuilder().setTaskName("Unzip").setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(5));
+        ProgressBar pb = zis.getProgressBar();
+        int entries = 0;
+        long previous = 0;
+        while (zis.getNextEntry() != null) {
+            entries++;
+            assertEquals(500000, drain(zis));
+            assertTrue(pb.getCurrent() > previous);
+            previous = pb.getCurrent();
+            assertTrue(previous < compressed);
+        }
+        zis.close();
+        assertEquals(3, entries);
+        assertEquals(compressed, pb.getCurrent());
+        assertTrue(out.toString().contains("entries: 3"));
+    }
+
+}
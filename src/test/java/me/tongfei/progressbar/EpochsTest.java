@@ -0,0 +1,104 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedEpochs;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class EpochsTest {
+
+    private static final long SECOND = 1000000000L;
+
+    @Test
+    public void test() throws InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> data = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        ProgressBarWrappedEpochs<Integer> epochs = ProgressBar.wrapEpochs(data, 3,
+                new ProgressBarBuilder().setTaskName("Epochs").setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(10));
+        ProgressBar pb = epochs.getProgressBar();
+        for (int e = 1; e <= 3; e++) {
+            long sum = 0;
+            for (Integer x : epochs) {
+                sum += x;
+                if (x % 10 == 0) Thread.sleep(2);
+            }
+            assertEquals(4950, sum);
+            assertEquals(e, epochs.getEpoch());
+            assertEquals(100, pb.getCurrent());
+            assertEquals(100, pb.getMax());
+            if (e < 3) {
+                assertFalse(pb.isClosed());
+                assertTrue(epochs.estimateRemainingNanos() > 0);
+            }
+        }
+        // closed at the end of the last epoch
+        assertTrue(pb.isClosed());
+        assertTrue(out.toString().contains("epoch: 3/3"));
+        assertTrue(out.toString().contains("all epochs: 100%"));
+    }
+
+    @Test
+    public void tickerTest() {
+        AtomicLong now = new AtomicLong();
+        List<Integer> data = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+        ProgressBarWrappedEpochs<Integer> epochs = ProgressBar.wrapEpochs(data, 3, new ProgressBarBuilder()
+                .setTaskName("Epochs").setTicker(now::get).setPrintStream(new PrintStream(new ByteArrayOutputStream())));
+        // first epoch: 1 s per element
+        for (Integer x : epochs) now.addAndGet(SECOND);
+        assertEquals(20 * SECOND, epochs.estimateRemainingNanos());
+        // second epoch: the previous epoch gives the throughput, whatever the rate of this one
+        Iterator<Integer> it = epochs.iterator();
+        for (int i = 0; i < 5; i++) {
+            it.next();
+            now.addAndGet(SECOND / 10);
+        }
+        assertEquals(15 * SECOND, epochs.estimateRemainingNanos());
+        epochs.close();
+    }
+
+    @Test
+    public void unknownSizeTest() throws InterruptedException {
+        List<Integer> data = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+        // an iterable whose spliterator does not know its size
+        Iterable<Integer> unsized = () -> new ArrayList<>(data).iterator();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBarWrappedEpochs<Integer> epochs = ProgressBar.wrapEpochs(unsized, 2, new ProgressBarBuilder()
+                .setTaskName("Epochs").setStyle(ProgressBarStyle.ASCII).setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(5));
+        assertEquals(-1, epochs.estimateRemainingNanos());
+        Iterator<Integer> it = epochs.iterator();
+        for (int i = 0; i < 10; i++) it.next();
+        Thread.sleep(50);
+        // indefinite until the first epoch is counted
+        assertTrue(out.toString().contains("? %"));
+        assertFalse(out.toString().contains("100%"));
+        while (it.hasNext()) it.next();
+        assertEquals(50, epochs.getProgressBar().getMax());
+        it = epochs.iterator();
+        assertEquals(0, epochs.getProgressBar().getCurrent());
+        while (it.hasNext()) it.next();
+        assertTrue(epochs.getProgressBar().isClosed());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void tooManyEpochsTest() {
+        ProgressBarWrappedEpochs<Integer> epochs = ProgressBar.wrapEpochs(new ArrayList<>(), 1,
+                new ProgressBarBuilder().setPrintStream(new PrintStream(new ByteArrayOutputStream())));
+        for (Integer x : epochs) { }
+        epochs.iterator();
+    }
+
+}
@@ -0,0 +1,105 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedFileChunks;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author cl
+ */
+public class FileChunksTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void unsupportedCharsetTest() throws IOException {
+        Path file = folder.newFile("utf16.txt").toPath();
+        Files.write(file, Collections.singletonList("record"), StandardCharsets.UTF_16);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ProgressBar.forEachLine(file, StandardCharsets.UTF_16,
+                    new ProgressBarBuilder().setPrintStream(new PrintStream(out)), line -> { });
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // nothing is opened: no progress bar is shown
+            assertEquals(0, out.size());
+        }
+    }
+
+    @Test
+    public void chunksTest() throws IOException {
+        Path file = folder.newFile("records.txt").toPath();
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 200000; i++) w.write("record " + i + (i % 1000 == 0 ? "\r\n" : "\n"));
+        }
+        List<String> expected = new ArrayList<>(Files.readAllLines(file));
+
+        ConcurrentLinkedQueue<String> lines = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Chunks").setUnit("KB", 1024).build();
+        try (ProgressBarWrappedFileChunks chunks =
+                     new ProgressBarWrappedFileChunks(FileChannel.open(file, StandardOpenOption.READ), StandardCharsets.UTF_8, 7, pb)) {
+            assertEquals(7, chunks.getChunkCount());
+            chunks.forEachLine(pool, lines::add);
+            long total = 0;
+            for (int i = 0; i < chunks.getChunkCount(); i++) {
+                assertTrue(chunks.getLane(i).isFinished());
+                total += chunks.getLane(i).getMax();
+            }
+            assertEquals(Files.size(file), total);
+        }
+        pool.shutdown();
+        assertEquals(Files.size(file), pb.getCurrent());
+
+        List<String> actual = new ArrayList<>(lines);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void fewLinesTest() throws IOException {
+        Path file = folder.newFile("short.txt").toPath();
+        Files.write(file, "a\nb".getBytes(StandardCharsets.UTF_8));
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        ProgressBar.forEachLine(file, StandardCharsets.UTF_8, new ProgressBarBuilder().setTaskName("Short"), lines::add);
+        Collections.sort(lines);
+        assertEquals(2, lines.size());
+        assertEquals("a", lines.get(0));
+        assertEquals("b", lines.get(1));
+    }
+
+    @Test
+    public void laneTest() {
+        try (ProgressBar pb = new ProgressBarBuilder().setTaskName("Lanes").setInitialMax(30).build()) {
+            ProgressLane a = pb.addLane("a", 10);
+            ProgressLane b = pb.addLane("b", 20);
+            a.stepBy(10);
+            b.stepBy(5);
+            assertTrue(a.isFinished());
+            assertEquals(15, pb.getCurrent());
+        }
+    }
+
+}
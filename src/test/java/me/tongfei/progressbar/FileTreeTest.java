@@ -0,0 +1,60 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedFileTree;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class FileTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private long createTree(Path dir, int depth) throws IOException {
+        long bytes = 0;
+        for (int i = 0; i < 5; i++) {
+            Files.write(dir.resolve("file" + i), new byte[100 * i + depth]);
+            bytes += 100 * i + depth;
+        }
+        if (depth > 0)
+            for (int i = 0; i < 3; i++)
+                bytes += createTree(Files.createDirectory(dir.resolve("dir" + i)), depth - 1);
+        return bytes;
+    }
+
+    @Test
+    public void bytesTest() throws Exception {
+        Path root = folder.getRoot().toPath();
+        long bytes = createTree(root, 3);
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Walk").setUnit("KB", 1024).build();
+        ProgressBarWrappedFileTree tree = new ProgressBarWrappedFileTree(root, pb, ProgressBarWrappedFileTree.Unit.BYTES);
+        try (Stream<Path> paths = tree.stream()) {
+            assertEquals(5 * 40, paths.filter(Files::isRegularFile).count());
+        }
+        assertEquals(bytes, pb.getCurrent());
+        for (int i = 0; i < 100 && !tree.isScanComplete(); i++) Thread.sleep(10);
+        assertTrue(tree.isScanComplete());
+        assertEquals(bytes, pb.getMax());
+    }
+
+    @Test
+    public void filesTest() throws Exception {
+        Path root = folder.getRoot().toPath();
+        createTree(root, 2);
+        try (Stream<Path> paths = ProgressBar.walk(root, new ProgressBarBuilder().setTaskName("Walk"), ProgressBarWrappedFileTree.Unit.FILES)) {
+            assertEquals(5 * 13 + 13, paths.count()); // 65 files and 13 directories, including the root
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class InlineRenderingTest {
+
+    @Test
+    public void singleThreadTest() throws InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Set<String> renderingThreads = ConcurrentHashMap.newKeySet();
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Inline").setInitialMax(1000)
+                .setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(20).setInlineRendering(true).build();
+        pb.addBitOfInformation(new BitOfInformation("thread", () -> {
+            renderingThreads.add(Thread.currentThread().getName());
+            return "";
+        }));
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            pb.step();
+            if (i % 10 == 0) Thread.sleep(1);
+        }
+        pb.close();
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        // all the frames are rendered by the stepping thread, at most once per interval (plus the first and last)
+        assertEquals(1, renderingThreads.size());
+        assertTrue(renderingThreads.contains(Thread.currentThread().getName()));
+        long frames = pb.getOverheadStats().getFrames();
+        assertTrue(frames > 2);
+        assertTrue(frames <= elapsedMillis / 20 + 3);
+        assertTrue(out.toString().contains("100%"));
+    }
+
+    @Test
+    public void tickerTest() {
+        AtomicLong now = new AtomicLong();
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Inline").setInitialMax(1000).setTicker(now::get)
+                .setPrintStream(new PrintStream(new ByteArrayOutputStream())).setUpdateIntervalMillis(10).setInlineRendering(true).build();
+        OverheadStats stats = pb.getOverheadStats();
+        // the first frame is rendered when the progress bar is built
+        assertEquals(1, stats.getFrames());
+        // the time is taken from the ticker: no frame until it advances by an update interval
+        for (int i = 0; i < 500; i++) pb.step();
+        assertEquals(1, stats.getFrames());
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        for (int i = 0; i < 20; i++) pb.step();
+        assertEquals(2, stats.getFrames());
+        pb.reset();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        // after a reset, the first step reaches the threshold again
+        pb.step();
+        assertEquals(3, stats.getFrames());
+        pb.close();
+    }
+
+    @Test
+    public void parallelTest() throws InterruptedException {
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Inline").setInitialMax(-1)
+                .setPrintStream(new PrintStream(new ByteArrayOutputStream())).setUpdateIntervalMillis(5).setInlineRendering(true).build();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200000; i++) pb.step();
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        pb.close();
+        assertEquals(800000, pb.getCurrent());
+    }
+
+}
@@ -0,0 +1,73 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketTest() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long v = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int b = LatencyHistogram.bucketOf(v);
+            assertTrue(LatencyHistogram.bucketLowerBound(b) <= v);
+            assertTrue(LatencyHistogram.bucketUpperBound(b) >= v);
+            assertTrue(v - LatencyHistogram.bucketLowerBound(b) <= v / LatencyHistogram.SUB_BUCKETS);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentileTest() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 10000; v++) h.record(v * 1000);
+        assertEquals(10000, h.getTotalCount());
+        assertEquals(10000000, h.getMax());
+        assertEquals(5000000, h.getValueAtPercentile(50), 5000000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(9900000, h.getValueAtPercentile(99), 9900000 / LatencyHistogram.SUB_BUCKETS);
+    }
+
+    @Test
+    public void stepTimedTest() {
+        try (ProgressBar pb = new ProgressBarBuilder().setTaskName("Timed").setInitialMax(200).showLatency().build()) {
+            for (int i = 0; i < 200; i++) {
+                int sleep = i % 50 == 0 ? 20 : 1;
+                pb.stepTimed(() -> {
+                    try {
+                        Thread.sleep(sleep);
+                    } catch (InterruptedException e) {
+                    }
+                });
+            }
+            assertEquals(200, pb.getLatencyHistogram().getTotalCount());
+            assertTrue(pb.getLatencyHistogram().getMax() >= 20000000);
+        }
+    }
+
+    @Test
+    public void rateLimitTest() {
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Limited")
+                .setPrintStream(new PrintStream(new ByteArrayOutputStream())).setRateLimit(1000).build();
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) pb.stepTimed(() -> { });
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        pb.close();
+        // timed steps are limited as well, and their durations do not include the time throttled
+        assertTrue(elapsedMillis >= 150);
+        assertTrue(pb.getRateLimiter().getThrottledNanos() > 0);
+        assertTrue(pb.getLatencyHistogram().getMax() < TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(200, pb.getCurrent());
+    }
+
+}
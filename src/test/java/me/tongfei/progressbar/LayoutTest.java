@@ -0,0 +1,57 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class LayoutTest {
+
+    @Test
+    public void displayWidthTest() {
+        assertEquals(1, Util.displayWidth(ProgressBarStyle.COLORFUL_UNICODE_BLOCK.leftBracket));
+        assertEquals(4, Util.displayWidth("进度"));
+        assertEquals(2, Util.displayWidth("ée"));
+        assertEquals("\u001b[33m│ab\u001b[0m", Util.truncateToWidth("\u001b[33m│abcd\u001b[0m", 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownFieldTest() {
+        ProgressBarLayout.compile("{task} {progress}");
+    }
+
+    @Test
+    public void compileTest() {
+        ProgressBarLayout layout = ProgressBarLayout.compile("{{{task}}} {bar}!");
+        assertEquals(5, layout.size());
+        assertEquals("{", layout.literals[0]);
+        assertEquals(ProgressBarLayout.Field.TASK, layout.fields[1]);
+        assertEquals("} ", layout.literals[2]);
+        assertEquals(3, layout.barIndex);
+    }
+
+    @Test
+    public void renderWidthTest() {
+        ProgressState progress = new ProgressState("下载", 100);
+        progress.start();
+        progress.stepBy(42);
+        ProgressThread target = new ProgressThread(progress, ProgressBarStyle.COLORFUL_UNICODE_BLOCK, 1000, System.out, "", 1, false);
+        try {
+            for (int width : new int[] {120, 80, 40}) {
+                String line = target.renderLine(progress.elapsedNanos(), width);
+                assertEquals(width, Util.displayWidth(line));
+                assertTrue(line.endsWith("\u001b[0m") || line.contains("\u001b[0m "));
+            }
+            target.setLayout(ProgressBarLayout.compile("{percent} {bar} {eta} {message}"));
+            progress.setExtraMessage("ファイル");
+            assertEquals(60, Util.displayWidth(target.renderLine(progress.elapsedNanos(), 60)));
+        }
+        finally {
+            target.shutdownTerminal();
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedBufferedReader;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedLineSpliterator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author cl
+ */
+public class LinesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // about 5 MB, with lines spanning several blocks and CRLF line endings
+    private Path createFile() throws IOException {
+        Path file = folder.newFile("lines.txt").toPath();
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 100000; i++) {
+                w.write("line " + i + " é");
+                if (i % 10000 == 0) w.write(new String(new char[100000]).replace('\0', 'x'));
+                w.write(i % 2 == 0 ? "\n" : "\r\n");
+            }
+            w.write("last");
+        }
+        return file;
+    }
+
+    @Test
+    public void sequentialTest() throws IOException {
+        Path file = createFile();
+        List<String> expected = Files.readAllLines(file);
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Lines").build();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ProgressBarWrappedLineSpliterator sp = new ProgressBarWrappedLineSpliterator(channel, StandardCharsets.UTF_8, pb);
+            List<String> lines = StreamSupport.stream(sp, false).collect(Collectors.toList());
+            assertEquals(expected, lines);
+        }
+        assertEquals(Files.size(file), pb.getCurrent());
+    }
+
+    @Test
+    public void parallelTest() throws IOException {
+        Path file = createFile();
+        List<String> expected = Files.readAllLines(file);
+        try (Stream<String> s = ProgressBar.lines(file, "Parallel lines")) {
+            assertEquals(expected, s.parallel().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void readerTest() throws IOException {
+        Path file = createFile();
+        try (BufferedReader reader = ProgressBar.newBufferedReader(file, StandardCharsets.UTF_8, new ProgressBarBuilder().setTaskName("Reader"))) {
+            assertEquals(Files.readAllLines(file).size(), reader.lines().count());
+            ProgressBar pb = ((ProgressBarWrappedBufferedReader) reader).getProgressBar();
+            assertEquals(Files.size(file), pb.getCurrent());
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class LogPassthroughTest {
+
+    private static int count(String s, String sub) {
+        int n = 0;
+        for (int i = s.indexOf(sub); i != -1; i = s.indexOf(sub, i + 1)) n++;
+        return n;
+    }
+
+    @Test
+    public void test() throws InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ProgressBar pb = new ProgressBarBuilder()
+                .setTaskName("Logging")
+                .setInitialMax(1000)
+                .setUpdateIntervalMillis(50)
+                .setPrintStream(new PrintStream(out))
+                .build()) {
+            PrintStream log = pb.getLogStream();
+            for (int i = 0; i < 1000; i++) {
+                if (i % 10 == 0) pb.println("line " + i);
+                if (i % 100 == 0) log.println("logger " + i);
+                pb.step();
+                if (i % 100 == 0) Thread.sleep(20);
+            }
+            log.print("unfinished");
+            log.close();
+        }
+        String s = out.toString();
+        assertEquals(100, count(s, "line "));
+        assertEquals(10, count(s, "logger "));
+        assertEquals(1, count(s, "unfinished"));
+        assertTrue(s.lastIndexOf("line 990") < s.lastIndexOf("100%"));
+    }
+
+}
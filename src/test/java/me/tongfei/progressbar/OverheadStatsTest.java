@@ -0,0 +1,69 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class OverheadStatsTest {
+
+    @Test
+    public void renderTest() throws InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Overhead").setInitialMax(50)
+                .setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(10).showOverhead().build();
+        for (int i = 0; i < 50; i++) {
+            pb.step();
+            Thread.sleep(2);
+        }
+        pb.close();
+        OverheadStats stats = pb.getOverheadStats();
+        assertEquals(50, stats.getSteps());
+        assertTrue(stats.getFrames() > 0);
+        assertEquals(stats.getFrames(), stats.getWrites());
+        assertTrue(stats.getBytesWritten() > 0);
+        assertTrue(stats.getMaxRenderNanos() >= stats.getAverageRenderNanos());
+        assertTrue(out.toString().contains("overhead: "));
+        assertTrue(OverheadStats.global().getSteps() >= 50);
+    }
+
+    @Test
+    public void trackerTest() {
+        // headless trackers are not rendered: their steps are not counted as overhead
+        long globalSteps = OverheadStats.global().getSteps();
+        ProgressTracker tracker = new ProgressTrackerRegistry().track("Headless", 1000);
+        for (int i = 0; i < 1000; i++) tracker.step();
+        tracker.close();
+        assertEquals(1000, tracker.getCurrent());
+        assertEquals(globalSteps, OverheadStats.global().getSteps());
+    }
+
+    @Test
+    public void contentionTest() throws InterruptedException {
+        try (ProgressBar pb = new ProgressBarBuilder().setTaskName("Contention").setInitialMax(400000).build()) {
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 100000; i++) pb.step();
+                });
+                threads[t].start();
+            }
+            for (Thread t : threads) t.join();
+            assertEquals(400000, pb.getCurrent());
+            assertEquals(400000, pb.getOverheadStats().getSteps());
+        }
+    }
+
+    @Test
+    public void utf8LengthTest() {
+        assertEquals(6, FrameWriter.utf8Length("aé█"));
+        assertEquals(4, FrameWriter.utf8Length("😀"));
+    }
+
+}
@@ -0,0 +1,87 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class PhasesTest {
+
+    private static final long SECOND = 1000000000L;
+
+    @Test
+    public void test() {
+        AtomicLong now = new AtomicLong();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Job").setTicker(now::get)
+                .setPrintStream(new PrintStream(out)).build();
+        ProgressPhases phases = new ProgressPhases(pb)
+                .addPhase("scan", 100, 1)
+                .addPhase("transform", 10, 3)
+                .addPhase("write", -1, 1);
+        assertEquals(-1, phases.estimateRemainingNanos());
+
+        // scan: 100 units in 10 s
+        phases.next();
+        assertEquals(100, pb.getMax());
+        for (int i = 0; i < 50; i++) {
+            pb.step();
+            now.addAndGet(SECOND / 10);
+        }
+        // half of the scan (weight 1 of 5) is done in 5 s: 5 s left in the scan, 4 * 10 s for the next phases
+        assertEquals(0.1, phases.getProgress(), 1e-9);
+        assertEquals(45 * SECOND, phases.estimateRemainingNanos());
+        for (int i = 0; i < 50; i++) {
+            pb.step();
+            now.addAndGet(SECOND / 10);
+        }
+
+        // transform: 10 units, 6 s each, so twice as slow as its weight says
+        phases.next();
+        assertEquals(0, pb.getCurrent());
+        assertEquals(10, pb.getMax());
+        for (int i = 0; i < 5; i++) {
+            pb.step();
+            now.addAndGet(6 * SECOND);
+        }
+        assertEquals(0.5, phases.getProgress(), 1e-9);
+        // 30 s left in the transform at its rate; 40 s spent for 2.5 weights: 16 s per weight for the write
+        assertEquals(46 * SECOND, phases.estimateRemainingNanos());
+        for (int i = 0; i < 5; i++) {
+            pb.step();
+            now.addAndGet(6 * SECOND);
+        }
+
+        // write: amount known when the phase starts
+        phases.next(20);
+        assertEquals(20, pb.getMax());
+        pb.stepBy(20);
+        now.addAndGet(10 * SECOND);
+        phases.close();
+
+        assertEquals(10 * SECOND, phases.getPhases().get(0).getDurationNanos());
+        assertEquals(60 * SECOND, phases.getPhases().get(1).getDurationNanos());
+        double[] weights = phases.getMeasuredWeights();
+        assertEquals(1.0 / 8, weights[0], 1e-9);
+        assertEquals(6.0 / 8, weights[1], 1e-9);
+        assertEquals(1.0 / 8, weights[2], 1e-9);
+        assertTrue(out.toString().contains("phase: write (3/3)"));
+        assertTrue(out.toString().contains("overall: 100%"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noNextPhaseTest() {
+        ProgressPhases phases = new ProgressPhases(new ProgressBarBuilder()
+                .setPrintStream(new PrintStream(new ByteArrayOutputStream())).build()).addPhase("only", 1, 1);
+        phases.next();
+        phases.next();
+    }
+
+}
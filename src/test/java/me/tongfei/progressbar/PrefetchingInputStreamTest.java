@@ -0,0 +1,112 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedInputStream;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedPrefetchingInputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author cl
+ */
+public class PrefetchingInputStreamTest {
+
+    private static ProgressBarBuilder builder(ByteArrayOutputStream out) {
+        return new ProgressBarBuilder().setTaskName("Reading").setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(10);
+    }
+
+    private static byte[] data(int n) {
+        byte[] data = new byte[n];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void eofTest() throws IOException {
+        byte[] data = data(1000);
+        ProgressBarWrappedInputStream is = new ProgressBarWrappedInputStream(new ByteArrayInputStream(data),
+                builder(new ByteArrayOutputStream()).setInitialMax(1000).build());
+        byte[] b = new byte[300];
+        while (is.read(b) != -1) { }
+        assertEquals(-1, is.read(b, 0, 10));
+        // reads at the end of the stream do not step back
+        assertEquals(1000, is.getProgressBar().getCurrent());
+        is.close();
+    }
+
+    @Test
+    public void test() throws IOException {
+        byte[] data = data(1000003);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBarWrappedPrefetchingInputStream is = new ProgressBarWrappedPrefetchingInputStream(
+                new ByteArrayInputStream(data), builder(out).setInitialMax(data.length).build(), 4096, 3);
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        byte[] b = new byte[1000];
+        int n;
+        assertEquals(data[0] & 0xff, is.read());
+        copy.write(data[0]);
+        while ((n = is.read(b)) != -1) {
+            copy.write(b, 0, n);
+            assertEquals(copy.size(), is.getProgressBar().getCurrent());
+        }
+        assertEquals(-1, is.read());
+        is.close();
+        assertArrayEquals(data, copy.toByteArray());
+        assertEquals(data.length, is.getProgressBar().getCurrent());
+        assertTrue(out.toString().contains("buffer: "));
+    }
+
+    @Test(expected = IOException.class)
+    public void errorTest() throws IOException {
+        InputStream failing = new InputStream() {
+            private int n = 0;
+
+            @Override
+            public int read() throws IOException {
+                if (n++ < 10000) return 0;
+                throw new IOException("Disk failure");
+            }
+        };
+        try (InputStream is = new ProgressBarWrappedPrefetchingInputStream(failing,
+                builder(new ByteArrayOutputStream()).build(), 1024, 2)) {
+            byte[] b = new byte[100];
+            while (is.read(b) != -1) { }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void uncheckedErrorTest() throws IOException {
+        InputStream failing = new InputStream() {
+            private int n = 0;
+
+            @Override
+            public int read() {
+                if (n++ < 10000) return 0;
+                throw new IllegalStateException("Decoder failure");
+            }
+        };
+        ProgressBarWrappedPrefetchingInputStream is = new ProgressBarWrappedPrefetchingInputStream(failing,
+                builder(new ByteArrayOutputStream()).build(), 1024, 2);
+        byte[] b = new byte[100];
+        try {
+            while (is.read(b) != -1) { }
+            fail("The failure of the reading thread must reach the consumer");
+        } catch (IllegalStateException e) {
+            assertEquals("Decoder failure", e.getMessage());
+        } finally {
+            is.close();
+        }
+        assertTrue(is.getProgressBar().getCurrent() <= 10000);
+    }
+
+}
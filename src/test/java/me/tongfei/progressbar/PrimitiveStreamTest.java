@@ -0,0 +1,69 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedIntSpliterator;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedLongSpliterator;
+import org.junit.Test;
+
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author cl
+ */
+public class PrimitiveStreamTest {
+
+    @Test
+    public void intStreamTest() {
+        long sum = ProgressBar.wrap(IntStream.range(0, 1000000).parallel(), "Int").asLongStream().sum();
+        assertEquals(999999L * 1000000 / 2, sum);
+    }
+
+    @Test
+    public void doubleStreamTest() {
+        double sum = ProgressBar.wrap(DoubleStream.generate(() -> 0.5).limit(10000), "Double").sum();
+        assertEquals(5000.0, sum, 1e-9);
+    }
+
+    @Test
+    public void allElementsCountedTest() {
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Long").setInitialMax(100003).build();
+        ProgressBarWrappedLongSpliterator sp = new ProgressBarWrappedLongSpliterator(LongStream.range(0, 100003).spliterator(), pb);
+        long count = StreamSupport.longStream(sp, true).filter(x -> x % 2 == 0).count();
+        assertEquals(50002, count);
+        assertEquals(100003, pb.getCurrent());
+    }
+
+    @Test
+    public void bulkTraversalTest() {
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Int").setInitialMax(100).build();
+        Spliterator.OfInt sp = new ProgressBarWrappedIntSpliterator(IntStream.range(0, 100).spliterator(), pb);
+        // counted when the traversal returns, not per element
+        sp.forEachRemaining((int x) -> assertEquals(0, pb.getCurrent()));
+        assertEquals(100, pb.getCurrent());
+        assertTrue(pb.isClosed());
+    }
+
+    @Test
+    public void failedBulkTraversalTest() {
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Int").setInitialMax(100).build();
+        Spliterator.OfInt sp = new ProgressBarWrappedIntSpliterator(IntStream.range(0, 100).spliterator(), pb);
+        try {
+            sp.forEachRemaining((int x) -> {
+                if (x == 42) throw new IllegalStateException();
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // the elements traversed before the failure are counted
+            assertEquals(42, pb.getCurrent());
+        }
+        pb.close();
+    }
+
+}
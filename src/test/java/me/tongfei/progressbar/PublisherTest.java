@@ -0,0 +1,199 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedSubscriber;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class PublisherTest {
+
+    /** A minimal synchronous publisher emitting {@code 0 until n}, honoring demand. */
+    private static Publisher<Integer> range(int n) {
+        return s -> s.onSubscribe(new Subscription() {
+            private final AtomicLong demand = new AtomicLong();
+            private int next = 0;
+            private boolean cancelled = false;
+
+            @Override
+            public void request(long k) {
+                if (demand.getAndAdd(k) > 0) return; // an outer call is already emitting
+                long d = k;
+                while (d > 0 && !cancelled) {
+                    if (next == n) {
+                        cancelled = true;
+                        s.onComplete();
+                        return;
+                    }
+                    s.onNext(next++);
+                    d = demand.decrementAndGet();
+                }
+                if (next == n && !cancelled) {
+                    cancelled = true;
+                    s.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+            }
+        });
+    }
+
+    /** A publisher emitting {@code 0 until n} on request, then failing. */
+    private static Publisher<Integer> failing(int n) {
+        return s -> s.onSubscribe(new Subscription() {
+            @Override
+            public void request(long k) {
+                for (int i = 0; i < n; i++) s.onNext(i);
+                s.onError(new IllegalStateException("failed"));
+            }
+
+            @Override
+            public void cancel() { }
+        });
+    }
+
+    private static ProgressBarBuilder builder() {
+        return new ProgressBarBuilder().setTaskName("Publisher").setPrintStream(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    // the subscription seen by the subscriber is the wrapper, which holds the progress bar
+    private static ProgressBar bar(AtomicReference<Subscription> subscription) {
+        return ((ProgressBarWrappedSubscriber<?>) subscription.get()).getProgressBar();
+    }
+
+    @Test
+    public void test() {
+        AtomicLong sum = new AtomicLong();
+        AtomicReference<Subscription> ref = new AtomicReference<>();
+        ProgressBar.wrap(range(1000), builder()).subscribe(new Subscriber<Integer>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+                ref.set(s);
+                s.request(10);
+            }
+
+            @Override
+            public void onNext(Integer x) {
+                sum.addAndGet(x);
+                if (x % 10 == 9) subscription.request(10);
+            }
+
+            @Override
+            public void onError(Throwable t) { }
+
+            @Override
+            public void onComplete() { }
+        });
+        assertEquals(999 * 1000 / 2, sum.get());
+        ProgressBar pb = bar(ref);
+        assertEquals(1000, pb.getCurrent());
+        assertEquals(1000, pb.getMax());
+        assertTrue(pb.isClosed());
+    }
+
+    @Test
+    public void errorTest() {
+        AtomicReference<Subscription> ref = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        ProgressBar.wrap(failing(5), builder()).subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                ref.set(s);
+                s.request(10);
+            }
+
+            @Override
+            public void onNext(Integer x) { }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+            }
+
+            @Override
+            public void onComplete() { }
+        });
+        assertTrue(error.get() instanceof IllegalStateException);
+        ProgressBar pb = bar(ref);
+        assertEquals(5, pb.getCurrent());
+        // the maximum follows the demand
+        assertEquals(10, pb.getMax());
+        assertTrue(pb.isClosed());
+    }
+
+    @Test
+    public void cancelTest() {
+        AtomicReference<Subscription> ref = new AtomicReference<>();
+        ProgressBar.wrap(range(1000), builder()).subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                ref.set(s);
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Integer x) {
+                if (x == 24) ref.get().cancel();
+            }
+
+            @Override
+            public void onError(Throwable t) { }
+
+            @Override
+            public void onComplete() { }
+        });
+        ProgressBar pb = bar(ref);
+        // every delivered element is counted, also with unbounded demand
+        assertEquals(25, pb.getCurrent());
+        // unbounded demand: indefinite, the maximum only follows the progress
+        assertEquals(25, pb.getMax());
+        assertTrue(pb.isClosed());
+    }
+
+    @Test
+    public void cancelFromOtherThreadTest() throws InterruptedException {
+        AtomicReference<Subscription> ref = new AtomicReference<>();
+        // the elements are signalled on another thread, and counted below the flush threshold of its step handle
+        Thread publishing = new Thread(() -> ProgressBar.wrap(range(1000), builder()).subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                ref.set(s);
+                s.request(100);
+            }
+
+            @Override
+            public void onNext(Integer x) { }
+
+            @Override
+            public void onError(Throwable t) { }
+
+            @Override
+            public void onComplete() { }
+        }));
+        publishing.start();
+        publishing.join();
+        ProgressBar pb = bar(ref);
+        ref.get().cancel();
+        assertTrue(pb.isClosed());
+        assertEquals(100, pb.getCurrent());
+        assertEquals(100, pb.getMax());
+    }
+
+}
@@ -0,0 +1,121 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedSpliterator;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class RateLimitTest {
+
+    @Test
+    public void test() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Limited").setInitialMax(3000)
+                .setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(10).setRateLimit(10000).build();
+        long start = System.nanoTime();
+        for (int i = 0; i < 30; i++) pb.stepBy(100);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        pb.close();
+        assertEquals(3000, pb.getCurrent());
+        // 3000 units at 10000/s, without tokens at the start
+        assertTrue(elapsedMillis >= 250);
+        assertTrue(elapsedMillis < 3000);
+        assertTrue(pb.getRateLimiter().getThrottledNanos() > 0);
+        assertTrue(out.toString().contains("limit: "));
+    }
+
+    @Test
+    public void adjustTest() throws InterruptedException {
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Limited")
+                .setPrintStream(new PrintStream(new ByteArrayOutputStream())).setRateLimit(1000).build();
+        Thread adjuster = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            pb.setRateLimit(0);
+        });
+        adjuster.start();
+        long start = System.nanoTime();
+        // would take 1000 s at the initial rate
+        pb.stepBy(1000000);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        adjuster.join();
+        assertTrue(elapsedMillis >= 90);
+        assertTrue(elapsedMillis < 2000);
+        assertTrue(pb.getRateLimiter().getRate() <= 0);
+        // no limit anymore
+        start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) pb.stepBy(1000);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        pb.close();
+    }
+
+    @Test
+    public void tickerTest() throws InterruptedException {
+        AtomicLong now = new AtomicLong();
+        // 100 units/s, a bucket of 10 units
+        RateLimiter limiter = new RateLimiter(100, 0.1, now::get);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        // the bucket is full: no wait
+        assertEquals(0, limiter.acquire(10));
+        Thread waiting = new Thread(() -> limiter.acquire(5));
+        waiting.start();
+        waiting.join(200);
+        // waits for the ticker, not for the wall clock
+        assertTrue(waiting.isAlive());
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        waiting.join(5000);
+        assertFalse(waiting.isAlive());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), limiter.getThrottledNanos());
+    }
+
+    @Test
+    public void handlesTest() {
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Limited").setInitialMax(500)
+                .setPrintStream(new PrintStream(new ByteArrayOutputStream())).setStepHandleFlush(100, 0).setRateLimit(1000).build();
+        long start = System.nanoTime();
+        // a wrapped stream counts its elements with the step handle of the traversing thread
+        long sum = StreamSupport.stream(new ProgressBarWrappedSpliterator<>(
+                IntStream.range(0, 500).boxed().spliterator(), pb), false).mapToLong(x -> x).sum();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(499 * 500 / 2, sum);
+        assertEquals(500, pb.getCurrent());
+        assertTrue(pb.isClosed());
+        // 500 units at 1000/s, taken 100 at a time
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis >= 350);
+        assertTrue(pb.getRateLimiter().getThrottledNanos() > 0);
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(20000, 0);
+        Thread[] threads = new Thread[4];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50; i++) limiter.acquire(20);
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        // 4000 units at 20000/s
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis >= 180);
+        assertTrue(elapsedMillis < 3000);
+    }
+
+}
@@ -0,0 +1,64 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class RuntimeBitsTest {
+
+    @Test
+    public void formatTest() {
+        assertEquals("512B", RuntimeBits.formatBytes(512));
+        assertEquals("1.5KB", RuntimeBits.formatBytes(1536));
+        assertEquals("2.0GB", RuntimeBits.formatBytes(2L << 30));
+    }
+
+    @Test
+    public void samplingTest() {
+        BitOfInformation heap = RuntimeBits.heap();
+        assertTrue(heap.getBit().matches("heap: [0-9.]+[KMGTPE]?B/.*"));
+
+        BitOfInformation gc = RuntimeBits.gc();
+        // sampled once within a frame
+        ProgressThread.beginFrame();
+        String first = gc.getBit();
+        assertTrue(first.matches("gc: \\d+"));
+        System.gc();
+        assertEquals(first, gc.getBit());
+        ProgressThread.endFrame();
+        // the next frame shows the collections since the previous one
+        ProgressThread.beginFrame();
+        assertTrue(gc.getBit().matches("gc: \\d+ \\(\\+\\d+, \\d+ms\\)"));
+        ProgressThread.endFrame();
+
+        assertTrue(RuntimeBits.threads().getBit().matches("threads: \\d+"));
+        assertTrue(RuntimeBits.cpu().getBit().matches("(cpu: (\\d+%|\\?))|(load: .*)"));
+    }
+
+    @Test
+    public void showRuntimeTest() throws InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ProgressBar pb = new ProgressBarBuilder().setTaskName("Runtime").setInitialMax(100).showRuntime()
+                .setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(10).build()) {
+            for (int i = 0; i < 100; i++) {
+                pb.step();
+                Thread.sleep(1);
+            }
+        }
+        String output = out.toString();
+        assertTrue(Pattern.compile("heap: [0-9.]+[KMGTPE]?B/([0-9.]+[KMGTPE]?B|\\?)").matcher(output).find());
+        // after the first frame, the collections since the previous frame are shown
+        assertTrue(Pattern.compile("gc: \\d+ \\(\\+\\d+, \\d+ms\\)").matcher(output).find());
+        assertTrue(Pattern.compile("(cpu: (\\d+%|\\?))|(load: ([0-9.]+|\\?))").matcher(output).find());
+        assertTrue(Pattern.compile("threads: [1-9]\\d*").matcher(output).find());
+    }
+
+}
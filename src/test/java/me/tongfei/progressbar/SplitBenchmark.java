@@ -0,0 +1,47 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedIntSpliterator;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedSpliterator;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static me.tongfei.progressbar.SplitStressTest.N;
+import static me.tongfei.progressbar.SplitStressTest.bar;
+
+/**
+ * Throughput of parallel streams over wrapped spliterators, compared to unwrapped ones.
+ * Not part of the unit tests: run its main method.
+ * @author cl
+ */
+public class SplitBenchmark {
+
+    public static void main(String[] args) {
+        Integer[] elements = SplitStressTest.boxed(4 * N);
+        long plain = 0, wrapped = 0;
+        for (int round = 0; round < 5; round++) {
+            long t0 = System.nanoTime();
+            long s1 = Arrays.stream(elements).parallel().mapToLong(x -> x).sum();
+            long t1 = System.nanoTime();
+            long s2 = StreamSupport.stream(new ProgressBarWrappedSpliterator<>(
+                    Arrays.spliterator(elements), bar("Throughput")), true).mapToLong(x -> x).sum();
+            long t2 = System.nanoTime();
+            if (s1 != s2) throw new AssertionError(s1 + " != " + s2);
+            if (round > 0) { // warm-up
+                plain += t1 - t0;
+                wrapped += t2 - t1;
+            }
+        }
+        System.out.printf("%d elements: %s unwrapped, %s wrapped%n", 4 * N, Util.formatNanos(plain / 4), Util.formatNanos(wrapped / 4));
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long t0 = System.nanoTime();
+        for (int round = 0; round < 5; round++)
+            pool.invoke(new SplitStressTest.SplittingTask(new ProgressBarWrappedIntSpliterator(IntStream.range(0, N).spliterator(), bar("Splits")), new LongAdder()));
+        System.out.printf("%d elements in splits of 16: %s%n", N, Util.formatNanos((System.nanoTime() - t0) / 5));
+    }
+
+}
@@ -0,0 +1,129 @@
+package me.tongfei.progressbar;
+
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedIntSpliterator;
+import me.tongfei.progressbar.wrapped.ProgressBarWrappedSpliterator;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress test of the split tracking of the wrapped spliterators at high split depth.
+ * See {@link SplitBenchmark} for the throughput.
+ * @author cl
+ */
+public class SplitStressTest {
+
+    static final int N = 1 << 20;
+
+    static ProgressBar bar(String task) {
+        PrintStream nowhere = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+
+            @Override
+            public void write(byte[] b, int off, int len) { }
+        });
+        return new ProgressBarBuilder().setTaskName(task).setInitialMax(N).setPrintStream(nowhere).build();
+    }
+
+    @Test
+    public void progressPerElementTest() {
+        // slow elements are counted as soon as they are processed, not once a batch is complete
+        ProgressBar pb = bar("Objects");
+        Spliterator<Integer> sp = new ProgressBarWrappedSpliterator<>(Arrays.asList(1, 2, 3, 4, 5).spliterator(), pb);
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(sp.tryAdvance(x -> { }));
+            assertEquals(i, pb.getCurrent());
+        }
+        sp.forEachRemaining(x -> assertTrue(pb.getCurrent() < 5));
+        assertEquals(5, pb.getCurrent());
+        assertTrue(pb.isClosed());
+
+        ProgressBar ipb = bar("Ints");
+        Spliterator.OfInt isp = new ProgressBarWrappedIntSpliterator(IntStream.range(0, 5).spliterator(), ipb);
+        isp.tryAdvance((int x) -> { });
+        isp.tryAdvance((int x) -> { });
+        assertEquals(2, ipb.getCurrent());
+        isp.forEachRemaining((int x) -> { });
+        assertEquals(5, ipb.getCurrent());
+        assertTrue(ipb.isClosed());
+    }
+
+    private static <T> void splitDeep(Spliterator<T> sp, int depth, List<Spliterator<T>> leaves) {
+        Spliterator<T> prefix = depth == 0 ? null : sp.trySplit();
+        if (prefix == null) leaves.add(sp);
+        else {
+            splitDeep(prefix, depth - 1, leaves);
+            splitDeep(sp, depth - 1, leaves);
+        }
+    }
+
+    static Integer[] boxed(int n) {
+        Integer[] a = new Integer[n];
+        for (int i = 0; i < n; i++) a[i] = i;
+        return a;
+    }
+
+    @Test
+    public void deterministicCloseTest() {
+        ProgressBar pb = bar("Deep split");
+        List<Spliterator<Integer>> leaves = new ArrayList<>();
+        splitDeep(new ProgressBarWrappedSpliterator<>(Arrays.spliterator(boxed(N)), pb), 16, leaves);
+        assertEquals(1 << 16, leaves.size());
+
+        Spliterator<Integer> last = leaves.remove(leaves.size() - 1);
+        leaves.parallelStream().forEach(leaf -> leaf.forEachRemaining(x -> { }));
+        // exhausted splits advanced again must not count as closed twice
+        for (Spliterator<Integer> leaf : leaves) assertFalse(leaf.tryAdvance(x -> { }));
+        assertFalse(pb.isClosed());
+
+        last.forEachRemaining(x -> { });
+        assertTrue(pb.isClosed());
+        assertEquals(N, pb.getCurrent());
+    }
+
+    // splits and traversals racing on a pool, as in a parallel stream, but down to 16 elements per split
+    static class SplittingTask extends RecursiveAction {
+        final Spliterator.OfInt sp;
+        final LongAdder sum;
+
+        SplittingTask(Spliterator.OfInt sp, LongAdder sum) {
+            this.sp = sp;
+            this.sum = sum;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator.OfInt prefix;
+            if (sp.estimateSize() > 16 && (prefix = sp.trySplit()) != null)
+                invokeAll(new SplittingTask(prefix, sum), new SplittingTask(sp, sum));
+            else sp.forEachRemaining((int x) -> sum.add(x));
+        }
+    }
+
+    @Test
+    public void concurrentSplitTest() {
+        for (int round = 0; round < 20; round++) {
+            ProgressBar pb = bar("Concurrent split");
+            LongAdder sum = new LongAdder();
+            ForkJoinPool.commonPool().invoke(new SplittingTask(new ProgressBarWrappedIntSpliterator(IntStream.range(0, N).spliterator(), pb), sum));
+            assertEquals((long) N * (N - 1) / 2, sum.sum());
+            assertTrue(pb.isClosed());
+            assertEquals(N, pb.getCurrent());
+        }
+    }
+
+}
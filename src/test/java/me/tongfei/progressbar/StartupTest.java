@@ -0,0 +1,79 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Time to first frame of a progress bar, with the JLine and the plain ANSI terminal backends.
+ * <p>
+ * Run as a test on the JVM, or as a program to compare with a native image of it, e.g.:
+ * {@code native-image -cp target/classes:target/test-classes:jline.jar me.tongfei.progressbar.StartupTest}
+ * then {@code ./me.tongfei.progressbar.startuptest ansi}.
+ * </p>
+ * @author cl
+ */
+public class StartupTest {
+
+    // records when the first frame is written
+    private static class FirstFrame extends OutputStream {
+        volatile long nanos = -1;
+
+        @Override
+        public void write(int b) {
+            if (nanos == -1) nanos = System.nanoTime();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (nanos == -1) nanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns the time to build a progress bar and the time to its first frame, in nanoseconds.
+     */
+    static long[] measure(boolean ansi) throws InterruptedException {
+        FirstFrame out = new FirstFrame();
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName("Startup").setInitialMax(1)
+                .setPrintStream(new PrintStream(out));
+        if (ansi) pbb.setTerminalWidth(80);
+        long t0 = System.nanoTime();
+        ProgressBar pb = pbb.build();
+        long built = System.nanoTime() - t0;
+        while (out.nanos == -1) Thread.sleep(0, 100000);
+        long firstFrame = out.nanos - t0;
+        pb.close();
+        return new long[] { built, firstFrame };
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long main = System.currentTimeMillis();
+        boolean ansi = args.length > 0 && args[0].equals("ansi");
+        long[] t = measure(ansi);
+        String sinceStart;
+        try {
+            sinceStart = (main - ManagementFactory.getRuntimeMXBean().getStartTime()) + "ms";
+        } catch (Throwable e) {
+            sinceStart = "?";
+        }
+        System.out.printf("%s: process start to main %s, build %s, first frame %s%n", ansi ? "ansi" : "jline",
+                sinceStart, Util.formatNanos(t[0]), Util.formatNanos(t[1]));
+    }
+
+    @Test
+    public void test() throws InterruptedException {
+        for (boolean ansi : new boolean[] { false, true }) {
+            long[] t = measure(ansi); // first bar: class loading and terminal probing
+            long[] again = measure(ansi);
+            System.out.printf("%s: build %s, first frame %s (then %s, %s)%n", ansi ? "ansi" : "jline",
+                    Util.formatNanos(t[0]), Util.formatNanos(t[1]), Util.formatNanos(again[0]), Util.formatNanos(again[1]));
+            assertTrue(again[1] < 1000000000L);
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class StepHandleTest {
+
+    private ProgressBarBuilder builder(String task) {
+        return new ProgressBarBuilder().setTaskName(task).setInitialMax(800000)
+                .setPrintStream(new PrintStream(new ByteArrayOutputStream())).setUpdateIntervalMillis(10);
+    }
+
+    @Test
+    public void parallelTest() throws InterruptedException {
+        ProgressBar pb = builder("Handles").build();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                StepHandle h = pb.handle();
+                for (int i = 0; i < 100000; i++) h.step();
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        // unflushed steps are counted too
+        assertEquals(800000, pb.getCurrent());
+        pb.close();
+        assertEquals(800000, pb.getCurrent());
+        // each handle flushed every 1024 steps (or at a frame), instead of stepping the progress 800000 times
+        assertTrue(pb.getOverheadStats().getSteps() < 10000);
+    }
+
+    @Test
+    public void thresholdTest() {
+        try (ProgressBar pb = builder("Threshold").setStepHandleFlush(10, 60000).build()) {
+            StepHandle h = pb.handle();
+            assertSame(h, pb.handle());
+            h.stepBy(9);
+            assertEquals(9, h.getPending());
+            assertEquals(9, pb.getCurrent());
+            h.step();
+            assertEquals(0, h.getPending());
+            assertEquals(10, pb.getCurrent());
+            h.stepBy(3);
+            h.close();
+            assertEquals(0, h.getPending());
+            assertEquals(13, pb.getCurrent());
+            assertNotSame(h, pb.handle());
+        }
+    }
+
+    @Test
+    public void deadThreadTest() throws InterruptedException {
+        try (ProgressBar pb = builder("Dead thread").setStepHandleFlush(1000, 60000).build()) {
+            AtomicReference<StepHandle> handle = new AtomicReference<>();
+            Thread t = new Thread(() -> handle.set(pb.handle().stepBy(42)));
+            t.start();
+            t.join();
+            Thread.sleep(100); // a few frames
+            assertEquals(0, handle.get().getPending());
+            assertTrue(handle.get().isClosed());
+            assertEquals(42, pb.getCurrent());
+        }
+    }
+
+    @Test
+    public void timeBoundTest() throws InterruptedException {
+        try (ProgressBar pb = builder("Time bound").setStepHandleFlush(1000, 20).build()) {
+            StepHandle h = pb.handle();
+            h.stepBy(5);
+            Thread.sleep(100);
+            assertEquals(0, h.getPending());
+            assertEquals(5, pb.getCurrent());
+        }
+    }
+
+}
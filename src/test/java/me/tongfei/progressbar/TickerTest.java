@@ -0,0 +1,52 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author cl
+ */
+public class TickerTest {
+
+    @Test
+    public void etaAndSpeedTest() {
+        AtomicLong now = new AtomicLong(TimeUnit.DAYS.toNanos(3));
+        ProgressState progress = new ProgressState("Test", 1000, now::get);
+        progress.start();
+        ProgressThread target = new ProgressThread(progress, ProgressBarStyle.ASCII, 1000, System.out, "", 1, true);
+        try {
+            now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+            progress.stepBy(250);
+            assertEquals("0:00:30", target.estimateTimeRemaining(progress.elapsedNanos()));
+            assertEquals("25/s", target.getSpeed(progress.elapsedNanos()));
+
+            now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+            progress.stepBy(250);
+            assertEquals("0:10:10", target.estimateTimeRemaining(progress.elapsedNanos()));
+        }
+        finally {
+            target.shutdownTerminal();
+        }
+    }
+
+    @Test
+    public void registryIdleTest() {
+        AtomicLong now = new AtomicLong();
+        ProgressTrackerRegistry registry = new ProgressTrackerRegistry(1, TimeUnit.MINUTES, now::get);
+        ProgressTracker tracker = registry.track("Idle", 100);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(1, registry.size());
+        assertEquals(0.0, tracker.snapshot().getRate(), 1e-9);
+        tracker.stepBy(60);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(1.0, tracker.snapshot().getRate(), 1e-9);
+        assertEquals(1, registry.size());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertEquals(0, registry.size());
+    }
+
+}
@@ -0,0 +1,93 @@
+package me.tongfei.progressbar;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class TimelineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void encodingTest() throws IOException {
+        Path file = folder.newFile("encoding.pbtl").toPath();
+        List<String> none = Collections.emptyList();
+        try (TimelineRecorder recorder = new TimelineRecorder(file, "Encoding", 1234567890123L)) {
+            recorder.record(1000000, 10, 100, none, none);
+            recorder.record(2000000, 5, 100, Arrays.asList("a"), Arrays.asList("x"));
+            recorder.record(3000000, 50, -1, Arrays.asList("a", "b"), Arrays.asList("x", "y,z"));
+            recorder.record(3500000, 1L << 40, -1, Arrays.asList("a", "b"), Arrays.asList("w", "y,z"));
+        }
+        ProgressTimeline timeline = ProgressTimeline.read(file);
+        assertEquals("Encoding", timeline.getTask());
+        assertEquals(1234567890123L, timeline.getStartEpochMillis());
+        assertEquals(Arrays.asList("a", "b"), timeline.getBitNames());
+
+        List<ProgressTimeline.Sample> samples = timeline.getSamples();
+        assertEquals(4, samples.size());
+        assertEquals(1000, samples.get(0).getElapsedMicros());
+        assertEquals(5, samples.get(1).getCurrent());
+        assertNull(samples.get(0).getBit(0));
+        assertEquals("x", samples.get(1).getBit(0));
+        assertNull(samples.get(1).getBit(1));
+        assertEquals(-1, samples.get(2).getMax());
+        assertEquals("y,z", samples.get(2).getBit(1));
+        assertEquals(1L << 40, samples.get(3).getCurrent());
+        assertEquals("w", samples.get(3).getBit(0));
+        assertEquals("x", samples.get(2).getBit(0));
+        assertEquals(10.0, timeline.getRates()[0] / 1000, 1e-9);
+
+        StringBuilder csv = new StringBuilder();
+        timeline.writeCsv(csv);
+        String[] lines = csv.toString().split("\n");
+        assertEquals("elapsed,current,max,rate,a,b", lines[0]);
+        assertEquals("0.003,50,-1,45000.0,x,\"y,z\"", lines[3]);
+
+        // a truncated timeline is read up to its last complete sample
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertEquals(3, ProgressTimeline.read(file).getSamples().size());
+    }
+
+    @Test
+    public void progressBarTest() throws IOException, InterruptedException {
+        Path file = folder.newFile("bar.pbtl").toPath();
+        ProgressBar pb = new ProgressBarBuilder().setTaskName("Timeline").setInitialMax(40)
+                .setPrintStream(new PrintStream(new ByteArrayOutputStream())).setUpdateIntervalMillis(10)
+                .setTimelineFile(file).build();
+        pb.addBitOfInformation(new BitOfInformation("half", () -> String.valueOf(pb.getCurrent() >= 20)));
+        for (int i = 0; i < 30; i++) {
+            pb.step();
+            Thread.sleep(2);
+        }
+        pb.close();
+
+        ProgressTimeline timeline = ProgressTimeline.read(file);
+        List<ProgressTimeline.Sample> samples = timeline.getSamples();
+        assertTrue(samples.size() > 1);
+        ProgressTimeline.Sample last = samples.get(samples.size() - 1);
+        assertEquals(30, last.getCurrent());
+        assertEquals(40, last.getMax());
+        assertEquals(Collections.singletonList("half"), timeline.getBitNames());
+        // a few bytes per sample
+        assertTrue(Files.size(file) < 64 + 16 * samples.size());
+    }
+
+}
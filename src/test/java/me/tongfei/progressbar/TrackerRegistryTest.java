@@ -0,0 +1,70 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author cl
+ */
+public class TrackerRegistryTest {
+
+    @Test
+    public void test() throws InterruptedException {
+        ProgressTrackerRegistry registry = new ProgressTrackerRegistry();
+        List<ProgressTracker> trackers = new ArrayList<>();
+        for (int i = 0; i < 10000; i++)
+            trackers.add(registry.track("Request " + i, 100));
+        Thread.sleep(10);
+        for (int i = 0; i < trackers.size(); i++)
+            trackers.get(i).stepBy(i % 100);
+
+        assertEquals(10000, registry.size());
+        List<ProgressSnapshot> slowest = registry.slowest(3);
+        assertEquals(3, slowest.size());
+        for (ProgressSnapshot s : slowest) assertEquals(0, s.getCurrent());
+
+        trackers.get(0).close();
+        assertEquals(9999, registry.size());
+    }
+
+    @Test
+    public void maxTest() {
+        ProgressTrackerRegistry registry = new ProgressTrackerRegistry();
+        ProgressTracker tracker = registry.track("Definite", 10);
+        tracker.stepBy(12);
+        // as for progress bars, the maximum follows progress that goes beyond it
+        assertEquals(12, tracker.getMax());
+        tracker.maxHint(-1);
+        tracker.stepTo(20);
+        assertEquals(-1, tracker.snapshot().getMax());
+        assertEquals(20, tracker.snapshot().getCurrent());
+        tracker.maxHint(30);
+        assertEquals(30, tracker.getMax());
+        tracker.close();
+    }
+
+    @Test
+    public void idleEvictionTest() {
+        AtomicLong now = new AtomicLong();
+        ProgressTrackerRegistry registry = new ProgressTrackerRegistry(50, TimeUnit.MILLISECONDS, now::get);
+        ProgressTracker active = registry.track("Active", 100);
+        ProgressTracker idle = registry.track("Idle", 100);
+        for (int i = 0; i < 5; i++) {
+            active.step();
+            // the idle tracker is evicted once idle for more than 50 ms, at 60 ms
+            assertEquals(i < 3 ? 2 : 1, registry.size());
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        List<ProgressSnapshot> snapshots = registry.snapshots();
+        assertEquals(1, snapshots.size());
+        assertEquals("Active", snapshots.get(0).getTask());
+        idle.close();
+    }
+
+}
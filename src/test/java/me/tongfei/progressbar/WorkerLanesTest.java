@@ -0,0 +1,46 @@
+package me.tongfei.progressbar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author cl
+ */
+public class WorkerLanesTest {
+
+    @Test
+    public void test() throws ExecutionException, InterruptedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProgressBarBuilder pbb = new ProgressBarBuilder().setTaskName("Workers")
+                .setPrintStream(new PrintStream(out)).setUpdateIntervalMillis(10).showWorkerLanes();
+        LongAdder count = new LongAdder();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        pool.submit(() -> ProgressBar.wrap(IntStream.range(0, 2000).parallel(), pbb).forEach(i -> {
+            count.increment();
+            if (i % 100 == 0) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        })).get();
+        pool.shutdown();
+
+        assertEquals(2000, count.sum());
+        String output = out.toString();
+        assertTrue(output.contains("worker-"));
+        assertTrue(output.contains(" left)"));
+        assertTrue(output.contains("100%"));
+    }
+
+}